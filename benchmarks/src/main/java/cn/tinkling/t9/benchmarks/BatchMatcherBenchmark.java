@@ -0,0 +1,96 @@
+package cn.tinkling.t9.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import cn.tinkling.t9.T9HitSink;
+import cn.tinkling.t9.T9KeyColumn;
+import cn.tinkling.t9.T9MatchSpans;
+import cn.tinkling.t9.T9Matcher;
+
+/**
+ * {@link T9Matcher#matchAll(T9KeyColumn, String, T9HitSink)} 与逐个匹配的对比
+ * <p>
+ * 每次操作用一个查询串匹配整个语料, 查询串依次轮换. 结果以 ops/s 表示每秒扫描语料的次数.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchMatcherBenchmark {
+
+    private static final int CONSTRAINT_COUNT = 64;
+    private static final int CONSTRAINT_MASK = CONSTRAINT_COUNT - 1;
+
+    @Param({"10000", "100000"})
+    int size;
+
+    @Param({"1", "2", "4", "7"})
+    int constraintLength;
+
+    @Param({"true", "false"})
+    boolean polyphonic;
+
+    private String[] mT9Keys;
+    private T9KeyColumn mKeyColumn;
+    private String[] mConstraints;
+    private final T9MatchSpans mSpans = new T9MatchSpans();
+    private final CountingSink mSink = new CountingSink();
+
+    private int mConstraintIndex;
+
+    private static final class CountingSink implements T9HitSink {
+        int mCount;
+
+        @Override
+        public void onHit(int id, T9MatchSpans spans) {
+            mCount += spans.count();
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        Corpus corpus = Corpus.create(size);
+        mT9Keys = corpus.buildT9Keys(polyphonic ? Corpus.POLYPHONIC_PROVIDER : Corpus.MONOPHONIC_PROVIDER);
+        mKeyColumn = T9KeyColumn.of(mT9Keys);
+        mConstraints = corpus.createConstraints(CONSTRAINT_COUNT, constraintLength, false);
+    }
+
+    private String nextConstraint() {
+        mConstraintIndex = (mConstraintIndex + 1) & CONSTRAINT_MASK;
+        return mConstraints[mConstraintIndex];
+    }
+
+    @Benchmark
+    public int matchesEach() {
+        final String constraint = nextConstraint();
+        int count = 0;
+        for (String t9Key : mT9Keys) {
+            if (T9Matcher.matches(t9Key, constraint, mSpans)) {
+                count += mSpans.count();
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int matchAll() {
+        mSink.mCount = 0;
+        T9Matcher.matchAll(mKeyColumn, nextConstraint(), mSink);
+        return mSink.mCount;
+    }
+
+}
@@ -0,0 +1,229 @@
+package cn.tinkling.t9.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import cn.tinkling.t9.PinyinProvider;
+import cn.tinkling.t9.T9Utils;
+
+/**
+ * 合成的联系人数据
+ * <p>
+ * 约80%为中文姓名(单姓/复姓 + 一到两个字的名), 其余为英文姓名或中英混合的名称.
+ * 数据由固定的种子生成, 同样的参数总是得到同样的数据.
+ */
+final class Corpus {
+
+    private static final long SEED = 0x5439L;
+
+    /**
+     * 字符及其拼音, 第一个拼音为常用读音.
+     */
+    private static final String[][] DICTIONARY = {
+            // 姓
+            {"王", "wang"}, {"李", "li"}, {"张", "zhang"}, {"刘", "liu"}, {"陈", "chen"},
+            {"杨", "yang"}, {"黄", "huang"}, {"赵", "zhao"}, {"吴", "wu"}, {"周", "zhou"},
+            {"徐", "xu"}, {"孙", "sun"}, {"马", "ma"}, {"朱", "zhu"}, {"胡", "hu"},
+            {"郭", "guo"}, {"何", "he"}, {"高", "gao"}, {"林", "lin"}, {"罗", "luo"},
+            {"郑", "zheng"}, {"梁", "liang"}, {"谢", "xie"}, {"宋", "song"}, {"唐", "tang"},
+            {"欧", "ou"}, {"阳", "yang"}, {"司", "si"}, {"诸", "zhu"}, {"葛", "ge"},
+            // 多音字
+            {"曾", "zeng", "ceng"}, {"单", "shan", "dan", "chan"}, {"解", "xie", "jie"},
+            {"朴", "piao", "pu"}, {"乐", "yue", "le"}, {"长", "chang", "zhang"},
+            {"重", "zhong", "chong"}, {"行", "xing", "hang"}, {"查", "zha", "cha"},
+            {"区", "ou", "qu"}, {"仇", "qiu", "chou"}, {"尉", "yu", "wei"},
+            // 名
+            {"伟", "wei"}, {"芳", "fang"}, {"娜", "na"}, {"敏", "min"}, {"静", "jing"},
+            {"丽", "li"}, {"强", "qiang"}, {"磊", "lei"}, {"军", "jun"}, {"洋", "yang"},
+            {"勇", "yong"}, {"艳", "yan"}, {"杰", "jie"}, {"娟", "juan"}, {"涛", "tao"},
+            {"明", "ming"}, {"超", "chao"}, {"秀", "xiu"}, {"霞", "xia"}, {"平", "ping"},
+            {"刚", "gang"}, {"桂", "gui"}, {"英", "ying"}, {"华", "hua"}, {"文", "wen"},
+            {"玉", "yu"}, {"兰", "lan"}, {"飞", "fei"}, {"鑫", "xin"}, {"宇", "yu"},
+            {"浩", "hao"}, {"然", "ran"}, {"梓", "zi"}, {"萱", "xuan"}, {"子", "zi"},
+            {"轩", "xuan"}, {"雨", "yu"}, {"欣", "xin"}, {"嘉", "jia"}, {"怡", "yi"},
+    };
+
+    private static final int SURNAME_COUNT = 30;
+    private static final int POLYPHONE_FIRST = 30;
+    private static final int POLYPHONE_COUNT = 12;
+
+    private static final String[] COMPOUND_SURNAMES = {"欧阳", "司马", "诸葛", "上官"};
+
+    private static final String[] LATIN_FIRST_NAMES = {
+            "John", "Mary", "David", "Linda", "Michael", "Susan", "James", "Karen",
+            "Robert", "Lisa", "William", "Nancy", "Kevin", "Emma", "Tony", "Alice"
+    };
+
+    private static final String[] LATIN_LAST_NAMES = {
+            "Smith", "Johnson", "Brown", "Taylor", "Miller", "Wilson", "Moore", "Lee",
+            "Martin", "Clark", "Lewis", "Walker", "Young", "King", "Wright", "Green"
+    };
+
+    private static final String[] LATIN_SUFFIXES = {"Office", "Home", "VIP", "HR", "IT"};
+
+    private static final Map<Character, String[]> PINYIN = new HashMap<>();
+
+    static {
+        for (String[] entry : DICTIONARY) {
+            String[] pinyin = new String[entry.length - 1];
+            System.arraycopy(entry, 1, pinyin, 0, pinyin.length);
+            PINYIN.put(entry[0].charAt(0), pinyin);
+        }
+        PINYIN.put('上', new String[]{"shang"});
+        PINYIN.put('官', new String[]{"guan"});
+    }
+
+    /**
+     * 返回所有读音的拼音提供者
+     */
+    static final PinyinProvider POLYPHONIC_PROVIDER = new PinyinProvider() {
+        @Override
+        public String[] getPinyin(char input) {
+            return PINYIN.get(input);
+        }
+    };
+
+    /**
+     * 只返回常用读音的拼音提供者
+     */
+    static final PinyinProvider MONOPHONIC_PROVIDER = new PinyinProvider() {
+        @Override
+        public String[] getPinyin(char input) {
+            String[] pinyin = PINYIN.get(input);
+            return pinyin == null ? null : new String[]{pinyin[0]};
+        }
+    };
+
+    final String[] names;
+    final String[] phoneNumbers;
+
+    private Corpus(int size) {
+        Random random = new Random(SEED);
+        names = new String[size];
+        phoneNumbers = new String[size];
+        for (int i = 0; i < size; i++) {
+            names[i] = nextName(random);
+            phoneNumbers[i] = nextPhoneNumber(random);
+        }
+    }
+
+    /**
+     * @param size 条目数量
+     */
+    static Corpus create(int size) {
+        return new Corpus(size);
+    }
+
+    /**
+     * @param provider 拼音提供者
+     * @return 与 {@link #names} 一一对应的 t9 keys.
+     */
+    String[] buildT9Keys(PinyinProvider provider) {
+        String[] keys = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            keys[i] = T9Utils.buildT9Key(names[i], provider);
+        }
+        return keys;
+    }
+
+    /**
+     * 从名称的拼音(或电话号码)中截取查询串, 使大部分查询至少能匹配到一部分条目.
+     *
+     * @param count  查询串的数量
+     * @param length 查询串的长度
+     * @param number <code>true</code> - 从电话号码中截取.
+     */
+    String[] createConstraints(int count, int length, boolean number) {
+        Random random = new Random(SEED + length);
+        String[] constraints = new String[count];
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            final int index = random.nextInt(names.length);
+            sb.setLength(0);
+            if (number) {
+                String phoneNumber = phoneNumbers[index];
+                final int start = random.nextInt(phoneNumber.length() - Math.min(length, 11) + 1);
+                sb.append(phoneNumber, start, start + Math.min(length, phoneNumber.length() - start));
+            } else {
+                appendNameDigits(sb, names[index], random);
+            }
+
+            while (sb.length() < length) {
+                sb.append((char) ('2' + random.nextInt(8)));
+            }
+            sb.setLength(length);
+            constraints[i] = sb.toString();
+        }
+        return constraints;
+    }
+
+    private static void appendNameDigits(StringBuilder sb, String name, Random random) {
+        // 一半的查询使用首字母, 另一半使用全拼
+        final boolean initials = random.nextBoolean();
+        for (int i = 0; i < name.length(); i++) {
+            final char c = name.charAt(i);
+            String[] pinyin = PINYIN.get(c);
+            String word = pinyin != null ? pinyin[random.nextInt(pinyin.length)]
+                    : (c == ' ' ? "" : String.valueOf(c));
+            for (int j = 0; j < word.length() && (j == 0 || !initials); j++) {
+                sb.append(T9Utils.formatCharToT9(word.charAt(j)));
+            }
+        }
+    }
+
+    private static String nextName(Random random) {
+        final int type = random.nextInt(10);
+        StringBuilder sb = new StringBuilder();
+        if (type < 8) {
+            // 中文姓名, 约5%为复姓, 约10%的姓为多音字
+            final int surname = random.nextInt(100);
+            if (surname < 5) {
+                sb.append(COMPOUND_SURNAMES[random.nextInt(COMPOUND_SURNAMES.length)]);
+            } else if (surname < 15) {
+                sb.append(DICTIONARY[POLYPHONE_FIRST + random.nextInt(POLYPHONE_COUNT)][0]);
+            } else {
+                sb.append(DICTIONARY[random.nextInt(SURNAME_COUNT)][0]);
+            }
+
+            final int givenLength = 1 + random.nextInt(2);
+            for (int i = 0; i < givenLength; i++) {
+                sb.append(DICTIONARY[SURNAME_COUNT + random.nextInt(DICTIONARY.length - SURNAME_COUNT)][0]);
+            }
+        } else if (type < 9) {
+            sb.append(LATIN_FIRST_NAMES[random.nextInt(LATIN_FIRST_NAMES.length)])
+                    .append(' ')
+                    .append(LATIN_LAST_NAMES[random.nextInt(LATIN_LAST_NAMES.length)]);
+        } else {
+            // 中英混合, 如 "张伟 Office", "Tony王"
+            if (random.nextBoolean()) {
+                sb.append(DICTIONARY[random.nextInt(SURNAME_COUNT)][0])
+                        .append(DICTIONARY[SURNAME_COUNT + random.nextInt(DICTIONARY.length - SURNAME_COUNT)][0])
+                        .append(' ')
+                        .append(LATIN_SUFFIXES[random.nextInt(LATIN_SUFFIXES.length)]);
+            } else {
+                sb.append(LATIN_FIRST_NAMES[random.nextInt(LATIN_FIRST_NAMES.length)])
+                        .append(DICTIONARY[random.nextInt(SURNAME_COUNT)][0]);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String nextPhoneNumber(Random random) {
+        StringBuilder sb = new StringBuilder(11);
+        if (random.nextInt(5) == 0) {
+            // 固定电话
+            sb.append('0').append((char) ('1' + random.nextInt(9)));
+            for (int i = 0; i < 9; i++) {
+                sb.append((char) ('0' + random.nextInt(10)));
+            }
+        } else {
+            sb.append('1').append((char) ('3' + random.nextInt(7)));
+            for (int i = 0; i < 9; i++) {
+                sb.append((char) ('0' + random.nextInt(10)));
+            }
+        }
+        return sb.toString();
+    }
+
+}
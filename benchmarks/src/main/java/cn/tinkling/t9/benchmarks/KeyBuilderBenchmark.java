@@ -0,0 +1,58 @@
+package cn.tinkling.t9.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import cn.tinkling.t9.PinyinProvider;
+import cn.tinkling.t9.T9Utils;
+
+/**
+ * {@link T9Utils#buildT9Key(String, PinyinProvider)} 的基准测试
+ * <p>
+ * 每次操作为语料中的一个名称生成 t9 key, 依次遍历整个语料.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyBuilderBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    int size;
+
+    @Param({"false", "true"})
+    boolean polyphonic;
+
+    private String[] mNames;
+    private PinyinProvider mProvider;
+    private int mIndex;
+
+    @Setup
+    public void setUp() {
+        mNames = Corpus.create(size).names;
+        mProvider = polyphonic ? Corpus.POLYPHONIC_PROVIDER : Corpus.MONOPHONIC_PROVIDER;
+    }
+
+    @Benchmark
+    public String buildT9Key() {
+        final int index = mIndex;
+        if (++mIndex == size) {
+            mIndex = 0;
+        }
+        return T9Utils.buildT9Key(mNames[index], mProvider);
+    }
+
+}
@@ -0,0 +1,97 @@
+package cn.tinkling.t9.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import cn.tinkling.t9.T9MatchInfo;
+import cn.tinkling.t9.T9Matcher;
+
+/**
+ * {@link T9Matcher} 的基准测试
+ * <p>
+ * 每次操作匹配语料中的一个条目, 依次遍历整个语料, 查询串也依次轮换.
+ * 结果以 ops/s 表示每秒匹配的条目数, 配合 <code>-prof gc</code> 可得到每次匹配的分配量.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatcherBenchmark {
+
+    private static final int CONSTRAINT_COUNT = 1024;
+    private static final int CONSTRAINT_MASK = CONSTRAINT_COUNT - 1;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    int size;
+
+    @Param({"1", "2", "4", "7"})
+    int constraintLength;
+
+    @Param({"true", "false"})
+    boolean polyphonic;
+
+    private String[] mT9Keys;
+    private String[] mPhoneNumbers;
+    private String[] mConstraints;
+    private String[] mNumberConstraints;
+    private char[] mCharConstraints;
+
+    private int mIndex;
+    private int mConstraintIndex;
+
+    @Setup
+    public void setUp() {
+        Corpus corpus = Corpus.create(size);
+        mT9Keys = corpus.buildT9Keys(polyphonic ? Corpus.POLYPHONIC_PROVIDER : Corpus.MONOPHONIC_PROVIDER);
+        mPhoneNumbers = corpus.phoneNumbers;
+        mConstraints = corpus.createConstraints(CONSTRAINT_COUNT, constraintLength, false);
+        mNumberConstraints = corpus.createConstraints(CONSTRAINT_COUNT, constraintLength, true);
+
+        mCharConstraints = new char[CONSTRAINT_COUNT];
+        for (int i = 0; i < CONSTRAINT_COUNT; i++) {
+            mCharConstraints[i] = mConstraints[i].charAt(0);
+        }
+    }
+
+    private int nextIndex() {
+        final int index = mIndex;
+        if (++mIndex == size) {
+            mIndex = 0;
+            mConstraintIndex = (mConstraintIndex + 1) & CONSTRAINT_MASK;
+        }
+        return index;
+    }
+
+    @Benchmark
+    public T9MatchInfo matchesChar() {
+        final int index = nextIndex();
+        return T9Matcher.matches(mT9Keys[index], mCharConstraints[(mConstraintIndex + index) & CONSTRAINT_MASK]);
+    }
+
+    @Benchmark
+    public T9MatchInfo matchesString() {
+        final int index = nextIndex();
+        return T9Matcher.matches(mT9Keys[index], mConstraints[(mConstraintIndex + index) & CONSTRAINT_MASK]);
+    }
+
+    @Benchmark
+    public T9MatchInfo matchesNumber() {
+        final int index = nextIndex();
+        return T9Matcher.matchesNumber(mPhoneNumbers[index],
+                mNumberConstraints[(mConstraintIndex + index) & CONSTRAINT_MASK]);
+    }
+
+}
@@ -0,0 +1,105 @@
+package cn.tinkling.t9;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * 可在 {@link Parcel} 中传递的 {@link T9MatchInfo}
+ */
+public final class ParcelableT9MatchInfo implements Parcelable {
+
+    private final T9MatchInfo mMatchInfo;
+
+    public static final Parcelable.Creator<ParcelableT9MatchInfo> CREATOR =
+            new Parcelable.Creator<ParcelableT9MatchInfo>() {
+                public ParcelableT9MatchInfo createFromParcel(Parcel source) {
+                    return new ParcelableT9MatchInfo(source);
+                }
+
+                public ParcelableT9MatchInfo[] newArray(int size) {
+                    return new ParcelableT9MatchInfo[size];
+                }
+            };
+
+    /**
+     * @param matchInfo 匹配信息
+     */
+    public ParcelableT9MatchInfo(@NonNull T9MatchInfo matchInfo) {
+        if (matchInfo == null) {
+            throw new NullPointerException("matchInfo == null");
+        }
+
+        mMatchInfo = matchInfo;
+    }
+
+    ParcelableT9MatchInfo(Parcel in) {
+        final int count = in.readInt();
+
+        T9MatchInfo head = null;
+        T9MatchInfo tail = null;
+        for (int i = 0; i < count; i++) {
+            T9MatchInfo matchInfo = new T9MatchInfo();
+            final boolean found = in.readByte() != 0;
+            final int start = in.readInt();
+            final int length = in.readInt();
+            if (found) {
+                matchInfo.set(start, length);
+            }
+
+            if (tail == null) {
+                head = matchInfo;
+            } else {
+                tail.setNext(matchInfo);
+            }
+            tail = matchInfo;
+        }
+
+        mMatchInfo = head != null ? head : new T9MatchInfo();
+    }
+
+    /**
+     * @return 匹配信息
+     */
+    @NonNull
+    public T9MatchInfo get() {
+        return mMatchInfo;
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        int count = 0;
+        for (T9MatchInfo m = mMatchInfo; m != null; m = m.next()) {
+            count++;
+        }
+
+        dest.writeInt(count);
+        for (T9MatchInfo m = mMatchInfo; m != null; m = m.next()) {
+            dest.writeByte(m.found() ? (byte) 1 : (byte) 0);
+            dest.writeInt(m.start());
+            dest.writeInt(m.length());
+        }
+    }
+
+    /**
+     * @return 包装后的匹配信息, 如果 matchInfo 为<code>null</code>则返回<code>null</code>.
+     */
+    @Nullable
+    public static ParcelableT9MatchInfo wrap(@Nullable T9MatchInfo matchInfo) {
+        return matchInfo != null ? new ParcelableT9MatchInfo(matchInfo) : null;
+    }
+
+    @Override
+    public String toString() {
+        return "ParcelableT9MatchInfo{" +
+               "mMatchInfo=" + mMatchInfo +
+               '}';
+    }
+
+}
@@ -1,16 +1,17 @@
 package cn.tinkling.t9search.sample;
 
 import cn.tinkling.t9.T9MatchInfo;
+import cn.tinkling.t9.T9PhoneNumber;
 
 public class Contact {
 
     public String name;
-    public String phoneNumber;
+    public T9PhoneNumber phoneNumber;
     public String t9Key;
     public T9MatchInfo nameMatchInfo;
     public T9MatchInfo phoneNumberMatchInfo;
 
-    public Contact(String name, String phoneNumber, String t9Key) {
+    public Contact(String name, T9PhoneNumber phoneNumber, String t9Key) {
         this.name = name;
         this.phoneNumber = phoneNumber;
         this.t9Key = t9Key;
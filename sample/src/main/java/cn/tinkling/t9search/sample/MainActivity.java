@@ -4,7 +4,10 @@ import android.app.ProgressDialog;
 import android.database.Cursor;
 import android.os.AsyncTask;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.provider.ContactsContract;
+import android.support.annotation.NonNull;
 import android.support.v7.app.AppCompatActivity;
 import android.text.Editable;
 import android.text.SpannableStringBuilder;
@@ -13,34 +16,65 @@ import android.text.TextWatcher;
 import android.util.Log;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.AbsListView;
 import android.widget.BaseAdapter;
 import android.widget.EditText;
-import android.widget.Filter;
 import android.widget.ListView;
 import android.widget.TextView;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 
-import cn.tinkling.t9.T9Matcher;
+import cn.tinkling.t9.T9CancellationToken;
+import cn.tinkling.t9.T9PhoneNumber;
+import cn.tinkling.t9.T9SearchScheduler;
 
 public class MainActivity extends AppCompatActivity {
 
+    private static final String TAG = "MainActivity";
+
+    /**
+     * 每次搜索的结果数量, 滚动到列表末尾时增加.
+     */
+    private static final int PAGE_SIZE = 50;
+
     List<Contact> mContactsAll;
     ContactsAdapter mContactsAdapter;
-    T9Filter mT9Filter;
+    T9SearchScheduler<List<Contact>> mSearchScheduler;
     ProgressDialog mProgressDialog;
 
+    String mConstraint;
+    volatile int mLimit = PAGE_SIZE;
+    boolean mHasMore;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
         mContactsAdapter = new ContactsAdapter();
-        mT9Filter = new T9Filter();
+        mSearchScheduler = createSearchScheduler();
 
         ListView listView = (ListView) findViewById(R.id.listView);
         listView.setAdapter(mContactsAdapter);
+        listView.setOnScrollListener(new AbsListView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(AbsListView view, int scrollState) {
+            }
+
+            @Override
+            public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount,
+                                 int totalItemCount) {
+                // 结果被截断时, 滚动到末尾后搜索下一页.
+                if (mHasMore && firstVisibleItem + visibleItemCount >= totalItemCount) {
+                    mHasMore = false;
+                    mLimit += PAGE_SIZE;
+                    mSearchScheduler.submit(mConstraint);
+                }
+            }
+        });
 
         ((EditText) findViewById(R.id.editText)).addTextChangedListener(new TextWatcher() {
             @Override
@@ -53,7 +87,10 @@ public class MainActivity extends AppCompatActivity {
 
             @Override
             public void afterTextChanged(Editable s) {
-                mT9Filter.filter(s);
+                mConstraint = s.toString();
+                mLimit = PAGE_SIZE;
+                mHasMore = false;
+                mSearchScheduler.submit(mConstraint);
             }
         });
 
@@ -78,17 +115,30 @@ public class MainActivity extends AppCompatActivity {
                                 ContactsContract.CommonDataKinds.Phone.NUMBER
                         }, null, null, ContactsContract.CommonDataKinds.Phone.SORT_KEY_PRIMARY);
 
-                List<Contact> contacts = new ArrayList<>();
+                List<String> names = new ArrayList<>();
+                List<T9PhoneNumber> numbers = new ArrayList<>();
                 if (cursor != null) {
                     while (cursor.moveToNext()) {
-                        String name = cursor.getString(0);
-                        String number = cursor.getString(1).replaceAll("[ \\(\\)-]+", "");
-                        String t9Key = T9SearchSupport.buildT9Key(name);
-                        contacts.add(new Contact(name, number, t9Key));
+                        names.add(cursor.getString(0));
+                        numbers.add(T9PhoneNumber.normalize(cursor.getString(1)));
                     }
                     cursor.close();
                 }
 
+                List<String> t9Keys;
+                try {
+                    t9Keys = T9SearchSupport.buildT9Keys(
+                            new File(getCacheDir(), "t9keys.bin"), names);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+
+                List<Contact> contacts = new ArrayList<>(names.size());
+                for (int i = 0; i < names.size(); i++) {
+                    contacts.add(new Contact(names.get(i), numbers.get(i), t9Keys.get(i)));
+                }
+
                 return contacts;
             }
 
@@ -105,9 +155,43 @@ public class MainActivity extends AppCompatActivity {
     public void onDestroy() {
         if(mProgressDialog.isShowing())
             mProgressDialog.dismiss();
+        mSearchScheduler.shutdown();
         super.onDestroy();
     }
 
+    /**
+     * 连续输入时只保留最新的搜索, 结果在 UI 线程中发送.
+     */
+    private T9SearchScheduler<List<Contact>> createSearchScheduler() {
+        final Handler handler = new Handler(Looper.getMainLooper());
+        return new T9SearchScheduler<>(new T9SearchScheduler.Search<List<Contact>>() {
+            @Override
+            public List<Contact> search(String constraint, @NonNull T9CancellationToken token) {
+                return TextUtils.isEmpty(constraint)
+                        ? mContactsAll
+                        : T9SearchSupport.filter(mContactsAll, constraint, mLimit, token);
+            }
+        }, new T9SearchScheduler.Callback<List<Contact>>() {
+            @Override
+            public void onResult(String constraint, List<Contact> result) {
+                // 过期的结果不会被发送, 因此 mLimit 就是这次搜索使用的数量.
+                mHasMore = !TextUtils.isEmpty(constraint) && result != null
+                        && result.size() >= mLimit;
+                mContactsAdapter.setContacts(result);
+            }
+
+            @Override
+            public void onError(String constraint, @NonNull RuntimeException e) {
+                Log.e(TAG, "Failed to search \"" + constraint + "\".", e);
+            }
+        }, new Executor() {
+            @Override
+            public void execute(@NonNull Runnable command) {
+                handler.post(command);
+            }
+        });
+    }
+
     private static class ViewHolder {
         public TextView name;
         public TextView phoneNumber;
@@ -164,37 +248,10 @@ public class MainActivity extends AppCompatActivity {
             holder.name.setText(T9SearchSupport.highLight(mHighLightBuffer, contact.nameMatchInfo,
                     contact.name, 0xFFFF4081));
             holder.phoneNumber.setText(T9SearchSupport.highLight(mHighLightBuffer,
-                    contact.phoneNumberMatchInfo, contact.phoneNumber, 0xAFFF4081));
+                    contact.phoneNumberMatchInfo, contact.phoneNumber.original(), 0xAFFF4081));
 
             return convertView;
         }
     }
 
-    private class T9Filter extends Filter {
-
-        @Override
-        protected FilterResults performFiltering(CharSequence constraint) {
-            List<Contact> list = TextUtils.isEmpty(constraint)
-                    ? mContactsAll
-                    : T9SearchSupport.filter(mContactsAll, constraint.toString());
-
-            FilterResults results = new FilterResults();
-            if (list != null) {
-                results.count = list.size();
-                results.values = list;
-            } else {
-                results.count = 0;
-                results.values = null;
-            }
-            return results;
-        }
-
-        @SuppressWarnings("unchecked")
-        @Override
-        protected void publishResults(CharSequence constraint, FilterResults results) {
-            mContactsAdapter.setContacts((List<Contact>) results.values);
-        }
-
-    }
-
 }
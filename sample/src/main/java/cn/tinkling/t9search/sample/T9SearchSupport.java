@@ -1,11 +1,13 @@
 package cn.tinkling.t9search.sample;
 
+import android.os.AsyncTask;
 import android.support.annotation.NonNull;
 import android.support.v4.util.Pools;
 import android.text.Spannable;
 import android.text.SpannableStringBuilder;
 import android.text.TextUtils;
 import android.text.style.ForegroundColorSpan;
+import android.util.Log;
 
 import net.sourceforge.pinyin4j.PinyinHelper;
 import net.sourceforge.pinyin4j.format.HanyuPinyinCaseType;
@@ -14,21 +16,33 @@ import net.sourceforge.pinyin4j.format.HanyuPinyinToneType;
 import net.sourceforge.pinyin4j.format.HanyuPinyinVCharType;
 import net.sourceforge.pinyin4j.format.exception.BadHanyuPinyinOutputFormatCombination;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import cn.tinkling.t9.CachingPinyinProvider;
 import cn.tinkling.t9.PinyinProvider;
+import cn.tinkling.t9.T9CancellationToken;
+import cn.tinkling.t9.T9Hit;
+import cn.tinkling.t9.T9KeyCache;
 import cn.tinkling.t9.T9MatchInfo;
 import cn.tinkling.t9.T9Matcher;
+import cn.tinkling.t9.T9RankedSearcher;
 import cn.tinkling.t9.T9Utils;
 
 public final class T9SearchSupport {
 
+    private static final String TAG = "T9SearchSupport";
+
+    /**
+     * 拼音提供者的版本, 更换拼音库或修改 {@link #FORMAT} 时需要递增, 使T9键缓存失效.
+     */
+    private static final int PINYIN_PROVIDER_VERSION = 1;
+
     private static final PinyinProvider PINYIN_PROVIDER;
     private static final HanyuPinyinOutputFormat FORMAT;
 
@@ -42,7 +56,7 @@ public final class T9SearchSupport {
 
         SET_POOL = new Pools.SynchronizedPool<>(4);
 
-        PINYIN_PROVIDER = new PinyinProvider() {
+        PINYIN_PROVIDER = new CachingPinyinProvider(new PinyinProvider() {
             @Override
             public String[] getPinyin(char input) {
                 Set<String> set = SET_POOL.acquire();
@@ -67,7 +81,7 @@ public final class T9SearchSupport {
 
                 return null;
             }
-        };
+        });
     }
 
     private T9SearchSupport() {
@@ -85,25 +99,76 @@ public final class T9SearchSupport {
     }
 
     /**
-     * 过虑
+     * 并行生成T9键, 缓存文件中已有的名称不再重新生成.
+     * <p>
+     * 使用 {@link AsyncTask#THREAD_POOL_EXECUTOR} 并行生成. 调用线程不会等待没有开始执行的任务,
+     * 因此可以在 {@link AsyncTask#doInBackground} 中调用, 线程池繁忙时由调用线程独自完成.
+     *
+     * @param cacheFile 缓存文件
+     * @param inputs    输入
+     * @return 与输入顺序一致的T9键
+     */
+    @NonNull
+    public static List<String> buildT9Keys(File cacheFile, List<String> inputs)
+            throws InterruptedException {
+        T9KeyCache cache;
+        try {
+            cache = T9KeyCache.open(cacheFile, PINYIN_PROVIDER_VERSION);
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to load the T9 key cache.", e);
+            return T9Utils.buildT9Keys(inputs, PINYIN_PROVIDER, AsyncTask.THREAD_POOL_EXECUTOR);
+        }
+
+        List<String> keys = cache.getT9Keys(inputs, PINYIN_PROVIDER, AsyncTask.THREAD_POOL_EXECUTOR);
+        try {
+            cache.save();
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to save the T9 key cache.", e);
+        }
+        return keys;
+    }
+
+    /**
+     * 过虑, 返回所有匹配的联系人.
      */
     public static List<Contact> filter(List<Contact> contacts, String key) {
+        return filter(contacts, key, Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * 过虑, 只返回排序最靠前的 limit 个联系人, 被取消时返回空的列表.
+     * <p>
+     * 只保留前 limit 个结果时不需要对所有的匹配结果排序, 因此列表按一页的大小搜索,
+     * 需要更多时再增大 limit 重新搜索.
+     */
+    public static List<Contact> filter(List<Contact> contacts, String key, int limit,
+                                       T9CancellationToken token) {
         ArrayList<Contact> filtered = new ArrayList<>();
 
         if (contacts != null && contacts.size() > 0) {
-            for (Contact contact : contacts) {
-                T9MatchInfo nameMatch = T9Matcher.matches(contact.t9Key, key);
-                T9MatchInfo numberMatch = T9Matcher.matchesNumber(contact.phoneNumber, key);
-
-                if (nameMatch.found() || numberMatch.found()) {
-                    Contact c = new Contact(contact);
-                    c.nameMatchInfo = nameMatch;
-                    c.phoneNumberMatchInfo = numberMatch;
-                    filtered.add(c);
-                }
+            final int size = contacts.size();
+            String[] names = new String[size];
+            String[] t9Keys = new String[size];
+            String[] phoneNumbers = new String[size];
+            for (int i = 0; i < size; i++) {
+                Contact contact = contacts.get(i);
+                names[i] = contact.name;
+                t9Keys[i] = contact.t9Key;
+                phoneNumbers[i] = contact.phoneNumber.normalized();
             }
 
-            Collections.sort(filtered, COMPARATOR);
+            List<T9Hit> hits =
+                    T9RankedSearcher.search(names, t9Keys, phoneNumbers, key, limit, token);
+            filtered.ensureCapacity(hits.size());
+            for (T9Hit hit : hits) {
+                Contact c = new Contact(contacts.get(hit.id()));
+                c.nameMatchInfo = hit.nameMatchInfo();
+                // 映射到原号码中的位置以便高亮
+                c.phoneNumberMatchInfo = hit.phoneNumberMatchInfo().found()
+                        ? T9Matcher.matchesNumber(c.phoneNumber, key)
+                        : hit.phoneNumberMatchInfo();
+                filtered.add(c);
+            }
         }
 
         return filtered;
@@ -136,84 +201,4 @@ public final class T9SearchSupport {
         return ssb;
     }
 
-    private static final Comparator<Contact> COMPARATOR = new Comparator<Contact>() {
-
-        @Override
-        public int compare(Contact left, Contact right) {
-            T9MatchInfo leftNameMatch = left.nameMatchInfo;
-            T9MatchInfo rightNameMatch = right.nameMatchInfo;
-            if (leftNameMatch.found()) {
-                if (rightNameMatch.found()) {
-                    int lStart = leftNameMatch.start();
-                    int rStart = rightNameMatch.start();
-
-                    if (lStart < rStart) {
-                        return -1;
-                    } else if (lStart > rStart) {
-                        return 1;
-                    }
-
-                    int lLen = getMatchLength(leftNameMatch);
-                    int rLen = getMatchLength(rightNameMatch);
-
-                    int temp = left.name.length() - lLen - (right.name.length() - rLen);
-                    if (temp != 0) {
-                        if (lLen < rLen) {
-                            return 1;
-                        } else if (lLen > rLen) {
-                            return -1;
-                        }
-                        return temp;
-                    } else if (lLen != rLen) {
-                        if (left.name.length() > right.name.length()) {
-                            return 1;
-                        } else if (left.name.length() < right.name.length()) {
-                            return -1;
-                        }
-                    }
-
-                    return left.name.compareToIgnoreCase(right.name);
-
-                } else {
-                    return -1;
-                }
-            } else if (rightNameMatch.found()) {
-                return 1;
-            }
-
-            T9MatchInfo leftNumberMatch = left.phoneNumberMatchInfo;
-            T9MatchInfo rightNumberMatch = right.phoneNumberMatchInfo;
-            if (leftNumberMatch.found()) {
-                if (rightNumberMatch.found()) {
-                    int lStart = leftNumberMatch.start();
-                    int rStart = rightNumberMatch.start();
-
-                    if (lStart < rStart) {
-                        return -1;
-                    } else if (lStart > rStart) {
-                        return 1;
-                    } else {
-                        return left.phoneNumber.compareToIgnoreCase(right.phoneNumber);
-                    }
-                } else {
-                    return -1;
-                }
-            } else if (rightNumberMatch.found()) {
-                return 1;
-            }
-
-            return 0;
-        }
-
-        private int getMatchLength(T9MatchInfo matchInfo) {
-            int len = 0;
-            while (matchInfo != null) {
-                len += matchInfo.length();
-                matchInfo = matchInfo.next();
-            }
-
-            return len;
-        }
-    };
-
 }
@@ -0,0 +1,106 @@
+package cn.tinkling.t9;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.annotation.Nonnull;
+
+/**
+ * 带缓存的拼音提供者
+ * <p>
+ * 以字符为下标缓存被包装的 {@link PinyinProvider} 的结果, 每个字符最多只向被包装的提供者查询一次.
+ * 中日韩统一表意文字(U+4E00–U+9FFF)的缓存表在创建时分配, 其他字符的缓存表按每256个字符一块按需分配.
+ * <p>
+ * 返回的数组在所有调用者之间共享, 不能被修改. 没有拼音的字符返回空数组.
+ * 该类是线程安全的.
+ */
+public final class CachingPinyinProvider implements PinyinProvider {
+
+    /**
+     * 中日韩统一表意文字的第一个字符
+     */
+    public static final char CJK_FIRST = '\u4E00';
+    /**
+     * 中日韩统一表意文字的最后一个字符
+     */
+    public static final char CJK_LAST = '\u9FFF';
+
+    private static final String[] NO_PINYIN = new String[0];
+
+    private static final int PAGE_SHIFT = 8;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    private static final int PAGE_COUNT = (Character.MAX_VALUE + 1) >>> PAGE_SHIFT;
+
+    private final PinyinProvider mProvider;
+    private final AtomicReferenceArray<AtomicReferenceArray<String[]>> mPages =
+            new AtomicReferenceArray<>(PAGE_COUNT);
+
+    /**
+     * @param provider 被包装的拼音提供者
+     */
+    public CachingPinyinProvider(@Nonnull PinyinProvider provider) {
+        if (provider == null) {
+            throw new NullPointerException("provider == null");
+        }
+
+        mProvider = provider;
+        for (int page = CJK_FIRST >>> PAGE_SHIFT; page <= CJK_LAST >>> PAGE_SHIFT; page++) {
+            mPages.set(page, new AtomicReferenceArray<String[]>(PAGE_SIZE));
+        }
+    }
+
+    @Nonnull
+    @Override
+    public String[] getPinyin(char input) {
+        AtomicReferenceArray<String[]> page = getPage(input);
+        final int index = input & PAGE_MASK;
+
+        String[] pinyin = page.get(index);
+        if (pinyin == null) {
+            pinyin = load(input);
+            if (!page.compareAndSet(index, null, pinyin)) {
+                pinyin = page.get(index);
+            }
+        }
+        return pinyin;
+    }
+
+    /**
+     * 预先加载中日韩统一表意文字(U+4E00–U+9FFF)的拼音.
+     */
+    public void preload() {
+        preload(CJK_FIRST, CJK_LAST);
+    }
+
+    /**
+     * 预先加载指定范围内的字符的拼音.
+     *
+     * @param first 第一个字符
+     * @param last  最后一个字符(包含)
+     */
+    public void preload(char first, char last) {
+        for (int c = first; c <= last; c++) {
+            getPinyin((char) c);
+        }
+    }
+
+    @Nonnull
+    private AtomicReferenceArray<String[]> getPage(char input) {
+        final int pageIndex = input >>> PAGE_SHIFT;
+        AtomicReferenceArray<String[]> page = mPages.get(pageIndex);
+        if (page == null) {
+            page = new AtomicReferenceArray<>(PAGE_SIZE);
+            if (!mPages.compareAndSet(pageIndex, null, page)) {
+                page = mPages.get(pageIndex);
+            }
+        }
+        return page;
+    }
+
+    @Nonnull
+    private String[] load(char input) {
+        String[] pinyin = mProvider.getPinyin(input);
+        return (pinyin == null || pinyin.length == 0) ? NO_PINYIN : pinyin.clone();
+    }
+
+}
@@ -0,0 +1,67 @@
+package cn.tinkling.t9;
+
+/**
+ * A growable list of primitive ints.
+ */
+final class IntList {
+
+    private int[] mValues;
+    private int mSize;
+
+    IntList() {
+        this(8);
+    }
+
+    IntList(int initialCapacity) {
+        mValues = new int[Math.max(initialCapacity, 1)];
+    }
+
+    void add(int value) {
+        if (mSize == mValues.length) {
+            int[] values = new int[mSize << 1];
+            System.arraycopy(mValues, 0, values, 0, mSize);
+            mValues = values;
+        }
+        mValues[mSize++] = value;
+    }
+
+    int get(int index) {
+        if (index >= mSize) {
+            throw new IndexOutOfBoundsException("index=" + index + ", size=" + mSize);
+        }
+        return mValues[index];
+    }
+
+    void set(int index, int value) {
+        if (index >= mSize) {
+            throw new IndexOutOfBoundsException("index=" + index + ", size=" + mSize);
+        }
+        mValues[index] = value;
+    }
+
+    int size() {
+        return mSize;
+    }
+
+    int last() {
+        return mSize > 0 ? mValues[mSize - 1] : -1;
+    }
+
+    void clear() {
+        mSize = 0;
+    }
+
+    void truncate(int size) {
+        if (size < 0 || size > mSize) {
+            throw new IndexOutOfBoundsException("size=" + size + ", current size=" + mSize);
+        }
+        mSize = size;
+    }
+
+    int[] toArray() {
+        int[] values = new int[mSize];
+        System.arraycopy(mValues, 0, values, 0, mSize);
+        return values;
+    }
+
+}
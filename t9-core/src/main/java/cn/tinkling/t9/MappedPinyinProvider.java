@@ -0,0 +1,225 @@
+package cn.tinkling.t9;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * 基于内存映射的二进制拼音字典的拼音提供者
+ * <p>
+ * 字典由 {@link PinyinDictionaryGenerator} 生成, 读音以T9数字串的形式保存, 拼音相同或T9编码相同的读音只保存一次.
+ * 打开字典时进行内存映射并校验整个字典, 查询时按字符直接定位到读音集合;
+ * 每个读音集合第一次被查询时创建的数组会被缓存并共享, 因此之后的查询不会分配新的对象.
+ * <p>
+ * 由于只保存了T9编码, 返回的拼音是与原拼音T9编码相同的规范字母串(每个数字取对应按键上的第一个字母,
+ * 如 "zhang" 返回 "wgamg"), 仅适合用于生成 T9 key. 返回的数组不能被修改.
+ * <p>
+ * 该类是线程安全的.
+ *
+ * <pre>
+ * 文件格式(大端序):
+ * int    magic            'T9PY'
+ * int    version          {@link #VERSION}
+ * int    firstChar        字典中的第一个字符
+ * int    charCount        字典覆盖的字符数量
+ * int    setCount         读音集合的数量
+ * int    readingCount     读音的数量
+ * u16[charCount]          每个字符的读音集合ID, 0xFFFF 表示没有读音
+ * int[setCount + 1]       每个读音集合在读音ID表中的起始位置
+ * u16[...]                读音ID表
+ * int[readingCount + 1]   每个读音在读音数据中的起始位置
+ * byte[...]               读音数据, T9数字 '2'..'9'
+ * </pre>
+ */
+public final class MappedPinyinProvider implements PinyinProvider {
+
+    static final int MAGIC = ('T' << 24) | ('9' << 16) | ('P' << 8) | 'Y';
+
+    /**
+     * 当前的字典格式版本
+     */
+    public static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 6 * 4;
+    static final int NO_READINGS = 0xFFFF;
+
+    private static final char[] T9_LETTERS = {'a', 'd', 'g', 'j', 'm', 'p', 't', 'w'};
+
+    private final ByteBuffer mBuffer;
+    private final int mFirstChar;
+    private final int mCharCount;
+    private final int mSetOffsetsPosition;
+    private final int mSetReadingsPosition;
+    private final int mReadingOffsetsPosition;
+    private final int mReadingDataPosition;
+
+    private final AtomicReferenceArray<String[]> mSets;
+    private final AtomicReferenceArray<String> mReadings;
+
+    MappedPinyinProvider(@Nonnull ByteBuffer buffer) throws IOException {
+        mBuffer = buffer;
+
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("INVALID PINYIN DICTIONARY");
+        }
+
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("UNSUPPORTED PINYIN DICTIONARY VERSION: " + version);
+        }
+
+        mFirstChar = buffer.getInt(8);
+        mCharCount = buffer.getInt(12);
+        int setCount = buffer.getInt(16);
+        int readingCount = buffer.getInt(20);
+        if (mFirstChar < 0 || mCharCount < 0 || mFirstChar + mCharCount > Character.MAX_VALUE + 1
+                || setCount < 0 || setCount > NO_READINGS
+                || readingCount < 0 || readingCount > NO_READINGS) {
+            throw new IOException("INVALID PINYIN DICTIONARY");
+        }
+
+        mSetOffsetsPosition = checkPosition(HEADER_SIZE + mCharCount * 2L);
+        mSetReadingsPosition = checkPosition(mSetOffsetsPosition + (setCount + 1) * 4L);
+        mReadingOffsetsPosition = checkPosition(mSetReadingsPosition
+                + checkOffsets(mSetOffsetsPosition, setCount) * 2L);
+        mReadingDataPosition = checkPosition(mReadingOffsetsPosition + (readingCount + 1) * 4L);
+        checkPosition(mReadingDataPosition + checkOffsets(mReadingOffsetsPosition, readingCount));
+
+        // 查询时不再检查, 因此在这里校验所有的读音集合ID, 读音ID和读音数据.
+        for (int i = 0; i < mCharCount; i++) {
+            final int set = buffer.getShort(HEADER_SIZE + i * 2) & 0xFFFF;
+            if (set != NO_READINGS && set >= setCount) {
+                throw new IOException("INVALID PINYIN DICTIONARY");
+            }
+        }
+        final int setReadingsEnd = buffer.getInt(mSetOffsetsPosition + setCount * 4);
+        for (int i = 0; i < setReadingsEnd; i++) {
+            if ((buffer.getShort(mSetReadingsPosition + i * 2) & 0xFFFF) >= readingCount) {
+                throw new IOException("INVALID PINYIN DICTIONARY");
+            }
+        }
+        for (int i = 0; i < readingCount; i++) {
+            final int start = buffer.getInt(mReadingOffsetsPosition + i * 4);
+            final int end = buffer.getInt(mReadingOffsetsPosition + (i + 1) * 4);
+            if (start == end) {
+                throw new IOException("INVALID PINYIN DICTIONARY");
+            }
+            for (int j = start; j < end; j++) {
+                final byte digit = buffer.get(mReadingDataPosition + j);
+                if (digit < '2' || digit > '9') {
+                    throw new IOException("INVALID PINYIN DICTIONARY");
+                }
+            }
+        }
+
+        mSets = new AtomicReferenceArray<>(setCount);
+        mReadings = new AtomicReferenceArray<>(readingCount);
+    }
+
+    /**
+     * 打开字典
+     *
+     * @param file 字典文件
+     * @return 拼音提供者
+     * @throws IOException 如果文件无法读取或者不是有效的字典.
+     */
+    @Nonnull
+    public static MappedPinyinProvider open(@Nonnull File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new MappedPinyinProvider(buffer);
+        } finally {
+            raf.close();
+        }
+    }
+
+    private int checkPosition(long position) throws IOException {
+        if (position < 0 || position > mBuffer.capacity()) {
+            throw new IOException("INVALID PINYIN DICTIONARY");
+        }
+        return (int) position;
+    }
+
+    /**
+     * 检查偏移量表: 从0开始且不递减.
+     *
+     * @param position 偏移量表的位置, 调用前已检查其范围.
+     * @param count    偏移量表描述的元素数量, 表中共有 count + 1 个偏移量.
+     * @return 最后一个偏移量, 即元素的总长度.
+     */
+    private int checkOffsets(int position, int count) throws IOException {
+        int previous = 0;
+        for (int i = 0; i <= count; i++) {
+            final int offset = mBuffer.getInt(position + i * 4);
+            if (i == 0 ? offset != 0 : offset < previous) {
+                throw new IOException("INVALID PINYIN DICTIONARY");
+            }
+            previous = offset;
+        }
+        return previous;
+    }
+
+    @Nullable
+    @Override
+    public String[] getPinyin(char input) {
+        final int index = input - mFirstChar;
+        if (index < 0 || index >= mCharCount)
+            return null;
+
+        final int set = mBuffer.getShort(HEADER_SIZE + index * 2) & 0xFFFF;
+        if (set == NO_READINGS)
+            return null;
+
+        String[] pinyin = mSets.get(set);
+        if (pinyin == null) {
+            pinyin = loadSet(set);
+            if (!mSets.compareAndSet(set, null, pinyin)) {
+                pinyin = mSets.get(set);
+            }
+        }
+        return pinyin;
+    }
+
+    @Nonnull
+    private String[] loadSet(int set) {
+        final int start = mBuffer.getInt(mSetOffsetsPosition + set * 4);
+        final int end = mBuffer.getInt(mSetOffsetsPosition + (set + 1) * 4);
+
+        String[] pinyin = new String[end - start];
+        for (int i = start; i < end; i++) {
+            int reading = mBuffer.getShort(mSetReadingsPosition + i * 2) & 0xFFFF;
+            pinyin[i - start] = getReading(reading);
+        }
+        return pinyin;
+    }
+
+    @Nonnull
+    private String getReading(int reading) {
+        String pinyin = mReadings.get(reading);
+        if (pinyin == null) {
+            final int start = mBuffer.getInt(mReadingOffsetsPosition + reading * 4);
+            final int end = mBuffer.getInt(mReadingOffsetsPosition + (reading + 1) * 4);
+
+            char[] letters = new char[end - start];
+            for (int i = start; i < end; i++) {
+                letters[i - start] = T9_LETTERS[mBuffer.get(mReadingDataPosition + i) - '2'];
+            }
+
+            pinyin = new String(letters);
+            if (!mReadings.compareAndSet(reading, null, pinyin)) {
+                pinyin = mReadings.get(reading);
+            }
+        }
+        return pinyin;
+    }
+
+}
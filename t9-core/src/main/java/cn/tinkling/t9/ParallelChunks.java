@@ -0,0 +1,108 @@
+package cn.tinkling.t9;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Nonnull;
+
+/**
+ * 将 [0, size) 分块并行处理.
+ * <p>
+ * executor 中的线程和调用线程一起从共享的计数器中领取块, 每个线程在领取到第一个块时创建各自的临时状态.
+ * 调用线程只等待已被领取的块完成, 不等待没有开始执行的任务: 在所有的块都被领取之后才开始执行的任务直接返回.
+ * 因此即使 executor 没有空闲线程(例如在 executor 自身的线程中调用), 调用线程也会独自完成所有的块而不会死锁.
+ */
+final class ParallelChunks {
+
+    /**
+     * @param <S> 每个线程各自持有的临时状态
+     */
+    static abstract class Task<S> {
+
+        @Nonnull
+        abstract S createScratch();
+
+        abstract void process(@Nonnull S scratch, int chunk, int start, int end);
+    }
+
+    private ParallelChunks() {
+    }
+
+    static int getChunkCount(int size, int chunkSize) {
+        return (size + chunkSize - 1) / chunkSize;
+    }
+
+    /**
+     * @throws InterruptedException 如果等待其他线程完成时被中断.
+     */
+    static <S> void execute(@Nonnull final Task<S> task, final int size, final int chunkSize,
+                            @Nonnull Executor executor) throws InterruptedException {
+        final int chunkCount = getChunkCount(size, chunkSize);
+        final int parallelism = Math.min(Runtime.getRuntime().availableProcessors(), chunkCount);
+        if (parallelism <= 1) {
+            executeSequentially(task, size, chunkSize);
+            return;
+        }
+
+        final AtomicInteger nextChunk = new AtomicInteger();
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        // 每完成(或失败)一个块释放一个许可
+        final Semaphore finishedChunks = new Semaphore(0);
+        final Runnable worker = new Runnable() {
+            @Override
+            public void run() {
+                S scratch = null;
+                int chunk;
+                while (error.get() == null && (chunk = nextChunk.getAndIncrement()) < chunkCount) {
+                    try {
+                        if (scratch == null) {
+                            scratch = task.createScratch();
+                        }
+                        final int start = chunk * chunkSize;
+                        task.process(scratch, chunk, start, Math.min(start + chunkSize, size));
+                    } catch (Throwable t) {
+                        error.compareAndSet(null, t);
+                    } finally {
+                        finishedChunks.release();
+                    }
+                }
+            }
+        };
+
+        try {
+            for (int i = 0; i < parallelism - 1; i++) {
+                executor.execute(worker);
+            }
+        } catch (RuntimeException e) {
+            // 已提交的任务通过 error 停止领取新的块, 等待它们完成已领取的块之后再抛出.
+            error.compareAndSet(null, e);
+        }
+
+        worker.run();
+
+        // 关闭计数器, 之后开始执行的任务不会再领取块. 此前已领取的块数量即为需要等待的数量.
+        final int claimedChunks = Math.min(nextChunk.getAndAdd(chunkCount), chunkCount);
+        finishedChunks.acquire(claimedChunks);
+
+        Throwable t = error.get();
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        } else if (t instanceof Error) {
+            throw (Error) t;
+        } else if (t != null) {
+            throw new RuntimeException(t);
+        }
+    }
+
+    static <S> void executeSequentially(@Nonnull Task<S> task, int size, int chunkSize) {
+        S scratch = task.createScratch();
+        final int chunkCount = getChunkCount(size, chunkSize);
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            final int start = chunk * chunkSize;
+            task.process(scratch, chunk, start, Math.min(start + chunkSize, size));
+        }
+    }
+
+}
@@ -0,0 +1,251 @@
+package cn.tinkling.t9;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.Nonnull;
+
+/**
+ * 二进制拼音字典生成工具
+ * <p>
+ * 从文本读取每个字符的拼音, 生成 {@link MappedPinyinProvider} 使用的字典文件. 文本的每一行格式为:
+ * <pre>
+ * 字符或U+XXXX  拼音1[,拼音2...]
+ * </pre>
+ * 拼音之间可以用逗号或空白分隔, 以 '#' 开头的行为注释. 拼音末尾的声调数字和字母上的声调符号会被忽略,
+ * ü 去掉分音符后为 u, 与 v 在同一个按键上. 含有其他字符的拼音不会被写入字典.
+ * <p>
+ * 命令行用法:
+ * <pre>
+ * java cn.tinkling.t9.PinyinDictionaryGenerator &lt;source.txt&gt; &lt;output.bin&gt;
+ * </pre>
+ */
+public final class PinyinDictionaryGenerator {
+
+    private final TreeMap<Character, Set<String>> mEntries = new TreeMap<>();
+
+    /**
+     * 添加字符的拼音
+     *
+     * @param c      字符
+     * @param pinyin 拼音
+     */
+    public void add(char c, @Nonnull String... pinyin) {
+        Set<String> readings = mEntries.get(c);
+        if (readings == null) {
+            readings = new LinkedHashSet<>();
+        }
+
+        for (String py : pinyin) {
+            String reading = encode(py);
+            if (reading.length() > 0) {
+                readings.add(reading);
+            }
+        }
+
+        // 没有可用的读音时不添加字符
+        if (!readings.isEmpty()) {
+            mEntries.put(c, readings);
+        }
+    }
+
+    /**
+     * 从文本中读取拼音
+     *
+     * @param reader 文本
+     * @throws IOException              读取失败
+     * @throws IllegalArgumentException 如果文本格式无效.
+     */
+    public void read(@Nonnull Reader reader) throws IOException {
+        BufferedReader br = new BufferedReader(reader);
+        String line;
+        int lineNumber = 0;
+        while ((line = br.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.length() == 0 || line.charAt(0) == '#')
+                continue;
+
+            String[] fields = line.split("[\\s,]+");
+            if (fields.length < 2) {
+                throw new IllegalArgumentException("INVALID LINE " + lineNumber + ": " + line);
+            }
+
+            String[] pinyin = new String[fields.length - 1];
+            System.arraycopy(fields, 1, pinyin, 0, pinyin.length);
+            add(parseChar(fields[0], lineNumber), pinyin);
+        }
+    }
+
+    private static char parseChar(String field, int lineNumber) {
+        if (field.length() == 1) {
+            return field.charAt(0);
+        }
+
+        if (field.startsWith("U+") || field.startsWith("u+")) {
+            int codePoint = Integer.parseInt(field.substring(2), 16);
+            if (codePoint <= Character.MAX_VALUE) {
+                return (char) codePoint;
+            }
+        }
+
+        throw new IllegalArgumentException("INVALID CHARACTER AT LINE " + lineNumber + ": " + field);
+    }
+
+    /**
+     * 将拼音转换为T9数字串, 无法转换的拼音返回空串.
+     */
+    @Nonnull
+    static String encode(@Nonnull String pinyin) {
+        // 分离声调符号, 如 "zhòng" 分解为 "zho" + U+0300 + "ng", 之后忽略这些组合字符.
+        pinyin = Normalizer.normalize(pinyin, Normalizer.Form.NFD);
+        int end = pinyin.length();
+        while (end > 0 && pinyin.charAt(end - 1) >= '0' && pinyin.charAt(end - 1) <= '9') {
+            end--;
+        }
+
+        StringBuilder sb = T9Utils.getReusableStringBuilder();
+        for (int i = 0; i < end; i++) {
+            char c = pinyin.charAt(i);
+            // 声调符号及 ü 的分音符
+            if (Character.getType(c) == Character.NON_SPACING_MARK)
+                continue;
+
+            if (('A' <= c && c <= 'Z') || ('a' <= c && c <= 'z')) {
+                sb.append(T9Utils.formatCharToT9(c));
+            } else {
+                sb.setLength(0);
+                break;
+            }
+        }
+
+        String digits = sb.toString();
+        T9Utils.recycleStringBuilder(sb);
+        return digits;
+    }
+
+    /**
+     * 生成字典
+     *
+     * @param out 输出
+     * @throws IOException           写入失败
+     * @throws IllegalStateException 如果读音或读音集合的数量超出字典格式的限制.
+     */
+    public void write(@Nonnull OutputStream out) throws IOException {
+        final int firstChar = mEntries.isEmpty() ? 0 : mEntries.firstKey();
+        final int charCount = mEntries.isEmpty() ? 0 : mEntries.lastKey() - firstChar + 1;
+
+        Map<String, Integer> readingIds = new HashMap<>();
+        List<String> readings = new ArrayList<>();
+        Map<List<Integer>, Integer> setIds = new HashMap<>();
+        List<List<Integer>> sets = new ArrayList<>();
+
+        int[] charSets = new int[charCount];
+        for (int i = 0; i < charCount; i++) {
+            charSets[i] = MappedPinyinProvider.NO_READINGS;
+        }
+
+        for (Map.Entry<Character, Set<String>> entry : mEntries.entrySet()) {
+            // 不同的拼音可能有相同的T9编码, 只保留一个
+            List<Integer> set = new ArrayList<>();
+            for (String reading : entry.getValue()) {
+                Integer id = readingIds.get(reading);
+                if (id == null) {
+                    id = readings.size();
+                    readingIds.put(reading, id);
+                    readings.add(reading);
+                }
+                if (!set.contains(id)) {
+                    set.add(id);
+                }
+            }
+
+            Integer setId = setIds.get(set);
+            if (setId == null) {
+                setId = sets.size();
+                setIds.put(set, setId);
+                sets.add(set);
+            }
+            charSets[entry.getKey() - firstChar] = setId;
+        }
+
+        if (readings.size() > MappedPinyinProvider.NO_READINGS
+                || sets.size() >= MappedPinyinProvider.NO_READINGS) {
+            throw new IllegalStateException("TOO MANY READINGS");
+        }
+
+        DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(out));
+        dos.writeInt(MappedPinyinProvider.MAGIC);
+        dos.writeInt(MappedPinyinProvider.VERSION);
+        dos.writeInt(firstChar);
+        dos.writeInt(charCount);
+        dos.writeInt(sets.size());
+        dos.writeInt(readings.size());
+
+        for (int set : charSets) {
+            dos.writeShort(set);
+        }
+
+        int offset = 0;
+        for (List<Integer> set : sets) {
+            dos.writeInt(offset);
+            offset += set.size();
+        }
+        dos.writeInt(offset);
+        for (List<Integer> set : sets) {
+            for (int reading : set) {
+                dos.writeShort(reading);
+            }
+        }
+
+        offset = 0;
+        for (String reading : readings) {
+            dos.writeInt(offset);
+            offset += reading.length();
+        }
+        dos.writeInt(offset);
+        for (String reading : readings) {
+            dos.writeBytes(reading);
+        }
+
+        dos.flush();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: PinyinDictionaryGenerator <source.txt> <output.bin>");
+            System.exit(1);
+        }
+
+        PinyinDictionaryGenerator generator = new PinyinDictionaryGenerator();
+        Reader reader = new InputStreamReader(new FileInputStream(args[0]), "UTF-8");
+        try {
+            generator.read(reader);
+        } finally {
+            reader.close();
+        }
+
+        OutputStream out = new FileOutputStream(args[1]);
+        try {
+            generator.write(out);
+        } finally {
+            out.close();
+        }
+    }
+
+}
@@ -0,0 +1,184 @@
+package cn.tinkling.t9;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Pool of objects.
+ * <p>
+ * Every thread has its own stack of pooled instances, so {@link #acquire()} and
+ * {@link #release(Object)} never take a lock and never contend with other threads.
+ * An instance may be released on a thread other than the one that acquired it.
+ * <p>
+ * Each thread also counts its own hits and misses in a small counter cell; {@link #getHitCount()}
+ * and {@link #getMissCount()} sum the counters of all threads that have used the pool. Only the
+ * cells are registered with the pool, and they refer to their threads weakly, so the pooled
+ * instances of a thread become garbage together with the thread. Cells of threads that have
+ * terminated are folded into retired totals and dropped.
+ *
+ * @param <T> The pooled type.
+ */
+final class Pool<T> {
+
+    private final int mMaxPoolSize;
+
+    private final ThreadLocal<Stack> mStacks = new ThreadLocal<Stack>() {
+        @Override
+        protected Stack initialValue() {
+            Counters counters = new Counters(Thread.currentThread());
+            synchronized (mAllCounters) {
+                retireDeadCounters();
+                mAllCounters.add(counters);
+            }
+            return new Stack(mMaxPoolSize, counters);
+        }
+    };
+
+    /**
+     * The counters of all live threads, only used to sum up the counts. Guarded by itself.
+     */
+    private final List<Counters> mAllCounters = new ArrayList<>();
+    private long mRetiredHits;
+    private long mRetiredMisses;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maxPoolSize The max pool size of each thread.
+     * @throws IllegalArgumentException If the max pool size is less than zero.
+     */
+    public Pool(int maxPoolSize) {
+        if (maxPoolSize <= 0) {
+            throw new IllegalArgumentException("The max pool size must be > 0");
+        }
+
+        mMaxPoolSize = maxPoolSize;
+    }
+
+    /**
+     * @return An instance from the pool of the current thread if such, null otherwise.
+     */
+    @SuppressWarnings("unchecked")
+    public T acquire() {
+        Stack stack = mStacks.get();
+        if (stack.mSize > 0) {
+            final int lastPooledIndex = stack.mSize - 1;
+            T instance = (T) stack.mPool[lastPooledIndex];
+            stack.mPool[lastPooledIndex] = null;
+            stack.mSize--;
+            stack.mCounters.mHits++;
+
+            return instance;
+        }
+
+        stack.mCounters.mMisses++;
+        return null;
+    }
+
+    /**
+     * Release an instance to the pool of the current thread.
+     *
+     * @param instance The instance to release.
+     * @return Whether the instance was put in the pool.
+     * @throws IllegalStateException If the instance is already in the pool.
+     */
+    public boolean release(T instance) {
+        Stack stack = mStacks.get();
+        if (stack.contains(instance)) {
+            throw new IllegalStateException("Already in the pool!");
+        }
+
+        if (stack.mSize < stack.mPool.length) {
+            stack.mPool[stack.mSize] = instance;
+            stack.mSize++;
+
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * @return The number of acquisitions that returned a pooled instance. The counts of running
+     * threads are read without locking and may lag behind.
+     */
+    public long getHitCount() {
+        synchronized (mAllCounters) {
+            retireDeadCounters();
+            long count = mRetiredHits;
+            for (Counters counters : mAllCounters) {
+                count += counters.mHits;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * @return The number of acquisitions that found the pool empty. The counts of running
+     * threads are read without locking and may lag behind.
+     */
+    public long getMissCount() {
+        synchronized (mAllCounters) {
+            retireDeadCounters();
+            long count = mRetiredMisses;
+            for (Counters counters : mAllCounters) {
+                count += counters.mMisses;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Folds the counters of terminated threads into the retired totals. A thread's termination
+     * happens-before another thread sees it as not alive, so the folded counts are exact.
+     */
+    private void retireDeadCounters() {
+        Iterator<Counters> iterator = mAllCounters.iterator();
+        while (iterator.hasNext()) {
+            Counters counters = iterator.next();
+            Thread thread = counters.get();
+            if (thread == null || !thread.isAlive()) {
+                mRetiredHits += counters.mHits;
+                mRetiredMisses += counters.mMisses;
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Counters of a thread, refers to the thread weakly.
+     */
+    private static final class Counters extends WeakReference<Thread> {
+        // Only written by the owner thread, so the increments need no atomic update. Volatile
+        // keeps the reads of the other threads atomic, a plain long may be torn on 32-bit VMs.
+        volatile long mHits;
+        volatile long mMisses;
+
+        Counters(Thread thread) {
+            super(thread);
+        }
+    }
+
+    private static final class Stack {
+        final Object[] mPool;
+        final Counters mCounters;
+        int mSize;
+
+        Stack(int maxPoolSize, Counters counters) {
+            mPool = new Object[maxPoolSize];
+            mCounters = counters;
+        }
+
+        boolean contains(Object instance) {
+            for (int i = 0; i < mSize; i++) {
+                if (mPool[i] == instance) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package cn.tinkling.t9;
+
+import java.util.Arrays;
+
+import javax.annotation.Nonnull;
+
+/**
+ * 位并行(Shift-And)的名称匹配
+ * <p>
+ * 用于单个 key 选项中从首字符的声母开始不超过 {@value #MAX_LENGTH} 个字符的部分, 每个字符对应一个二进制位.
+ * 先统计每个T9键在 key 中作为声母和作为数字出现的位置, 再从 constraint 的末尾向前逐个字符计算
+ * "从该位置开始可以匹配 constraint 剩余部分"的位置集合: 音节内的后续字符由移位得到, 跳到下一个声母
+ * (只匹配声母或者匹配完整的音节之后)由加法的进位得到. 最后按照 {@link T9Matcher} 回溯时的尝试顺序
+ * 重建匹配路径, 因此匹配结果与其完全相同.
+ * <p>
+ * key 含有无法识别的字符时返回 {@link #UNSUPPORTED}, 由调用者使用原来的方式匹配.
+ * <p>
+ * 字符串形式和二进制形式({@link T9PackedKey})的 key 只是统计位置的方式不同, 之后的计算完全相同.
+ */
+final class T9BitMatcher {
+
+    static final int MAX_LENGTH = 64;
+
+    static final int MATCHED = 1;
+    static final int NOT_MATCHED = 0;
+    static final int UNSUPPORTED = -1;
+
+    private static final int KEY_COUNT = 14;
+
+    // 临时缓冲的布局: [0, 14) 各个键作为数字出现的位置, 14 所有数字的位置, 15 所有声母的位置,
+    // [16, 30) 各个键作为声母出现的位置, 30 空格的位置, 31 无法识别的字符的位置,
+    // [32, 32 + constraint 的长度) 可以匹配 constraint 剩余部分的位置.
+    private static final int ALL_DIGITS = 14;
+    private static final int ALL_INITIALS = 15;
+    private static final int INITIALS = 16;
+    private static final int SPACES = 30;
+    private static final int UNKNOWN = 31;
+    private static final int REACHABLE = 32;
+
+    static final int SCRATCH_SIZE = REACHABLE + MAX_LENGTH;
+
+    // 字符在临时缓冲中对应的位置
+    private static final byte[] CODES = new byte['Z'];
+    // 二进制形式的符号在临时缓冲中对应的位置, 符号的编码与位置基本相同.
+    private static final byte[] PACKED_CODES = new byte[256];
+
+    static {
+        Arrays.fill(CODES, (byte) UNKNOWN);
+        Arrays.fill(PACKED_CODES, (byte) UNKNOWN);
+        CODES[' '] = SPACES;
+        PACKED_CODES[T9PackedKey.SPACE] = SPACES;
+        for (int i = 0; i < KEY_COUNT; i++) {
+            final char key = T9Utils.convertIndexToT9Key(i);
+            CODES[key] = (byte) i;
+            CODES[T9Utils.convertDigitToInitial(key)] = (byte) (INITIALS + i);
+            PACKED_CODES[i] = (byte) i;
+            PACKED_CODES[T9PackedKey.INITIAL | i] = (byte) (INITIALS + i);
+        }
+    }
+
+    private T9BitMatcher() {
+    }
+
+    /**
+     * 匹配 key 中的一个选项
+     *
+     * @param t9Key        t9 key.
+     * @param begin        选项的起始位置
+     * @param end          选项的结束位置
+     * @param t9Constraint the constraint, 长度不小于2且只含有有效的T9字符.
+     * @param spans        匹配成功时写入匹配结果, 同时提供临时缓冲.
+     * @return {@link #MATCHED}, {@link #NOT_MATCHED} 或 {@link #UNSUPPORTED}.
+     */
+    static int matches(@Nonnull String t9Key, int begin, int end, @Nonnull String t9Constraint,
+                       @Nonnull T9MatchSpans spans) {
+        final int cLen = t9Constraint.length();
+        if (end - begin < cLen)
+            return NOT_MATCHED;
+
+        // 与回溯匹配相同, 首字符的声母不存在时直接返回
+        final int firstIndex = t9Key.indexOf(
+                T9Utils.convertDigitToInitial(t9Constraint.charAt(0)), begin);
+        if (firstIndex < 0 || firstIndex > end - cLen)
+            return NOT_MATCHED;
+
+        // 首字符的声母之前的字符不会参与匹配, 从它开始计算位置
+        final int offset = firstIndex;
+        final int length = end - offset;
+        if (length > MAX_LENGTH)
+            return UNSUPPORTED;
+
+        final long[] masks = spans.mMasks;
+        Arrays.fill(masks, 0, REACHABLE, 0L);
+
+        for (int i = 0; i < length; i++) {
+            final char c = t9Key.charAt(offset + i);
+            masks[c < CODES.length ? CODES[c] : UNKNOWN] |= 1L << i;
+        }
+        if (!summarize(masks))
+            return UNSUPPORTED;
+
+        final int first = solve(masks, length, t9Constraint);
+        if (first < 0)
+            return NOT_MATCHED;
+
+        addSpans(masks, t9Constraint, first,
+                T9Utils.getWordsCount(t9Key, begin, offset + first), spans);
+        return MATCHED;
+    }
+
+    /**
+     * 匹配二进制形式的 key 中的一个选项
+     *
+     * @param packedKey    二进制形式的 t9 key.
+     * @param begin        选项的起始位置
+     * @param end          选项的结束位置
+     * @param t9Constraint the constraint, 长度不小于2且只含有有效的T9字符.
+     * @param spans        匹配成功时写入匹配结果, 同时提供临时缓冲.
+     * @return {@link #MATCHED}, {@link #NOT_MATCHED} 或 {@link #UNSUPPORTED}.
+     * @see #matches(String, int, int, String, T9MatchSpans)
+     */
+    static int matches(@Nonnull byte[] packedKey, int begin, int end, @Nonnull String t9Constraint,
+                       @Nonnull T9MatchSpans spans) {
+        final int cLen = t9Constraint.length();
+        if (end - begin < cLen)
+            return NOT_MATCHED;
+
+        final int firstIndex = T9PackedKey.indexOf(packedKey,
+                T9PackedKey.toInitial(t9Constraint.charAt(0)), begin, end - cLen + 1);
+        if (firstIndex < 0)
+            return NOT_MATCHED;
+
+        final int offset = firstIndex;
+        final int length = end - offset;
+        if (length > MAX_LENGTH)
+            return UNSUPPORTED;
+
+        final long[] masks = spans.mMasks;
+        Arrays.fill(masks, 0, REACHABLE, 0L);
+
+        for (int i = 0; i < length; i++) {
+            masks[PACKED_CODES[packedKey[offset + i] & 0xFF]] |= 1L << i;
+        }
+        if (!summarize(masks))
+            return UNSUPPORTED;
+
+        final int first = solve(masks, length, t9Constraint);
+        if (first < 0)
+            return NOT_MATCHED;
+
+        addSpans(masks, t9Constraint, first,
+                T9PackedKey.getWordsCount(packedKey, begin, offset + first), spans);
+        return MATCHED;
+    }
+
+    /**
+     * 汇总所有数字和所有声母的位置
+     *
+     * @return <code>false</code> - 如果含有无法识别的字符, 或者数字没有出现在声母或数字之后.
+     */
+    private static boolean summarize(long[] masks) {
+        if (masks[UNKNOWN] != 0)
+            return false;
+
+        long initials = 0;
+        long digits = 0;
+        for (int i = 0; i < KEY_COUNT; i++) {
+            digits |= masks[i];
+            initials |= masks[INITIALS + i];
+        }
+        masks[ALL_DIGITS] = digits;
+        masks[ALL_INITIALS] = initials;
+
+        // 数字只能出现在声母或数字之后
+        return (digits & ~((initials | digits) << 1)) == 0;
+    }
+
+    /**
+     * 计算每个位置是否可以匹配 constraint 的剩余部分
+     *
+     * @return 按回溯的顺序第一个可以匹配的起始位置, 不能匹配时返回 -1.
+     */
+    private static int solve(long[] masks, int length, String t9Constraint) {
+        final int cLen = t9Constraint.length();
+        final long initials = masks[ALL_INITIALS];
+        final long digits = masks[ALL_DIGITS];
+
+        final long all = length == MAX_LENGTH ? -1L : (1L << length) - 1;
+        // 可以跳到下一个声母的位置: 声母, 以及音节的最后一个字符
+        final long jumps = initials | ((initials | digits) & ~(digits >>> 1));
+        // 倒序后, 声母之间的字符组成连续的1, 加法的进位从后一个声母越过它们到达前一个声母
+        final long reversedInitials = Long.reverse(initials);
+        final long reversedGaps = Long.reverse(all & ~initials);
+
+        masks[REACHABLE + cLen - 1] = all;
+        for (int j = cLen - 2; j >= 0; j--) {
+            final int index = CODES[t9Constraint.charAt(j + 1)];
+            final long next = masks[REACHABLE + j + 1];
+
+            long reachable = (next & masks[index]) >>> 1;
+            final long targets = next & masks[INITIALS + index];
+            if (targets != 0) {
+                final long heads = Long.reverse(targets) << 1;
+                final long runs = (reversedGaps + (heads & reversedGaps)) ^ reversedGaps;
+                reachable |= Long.reverse(runs | (heads & reversedInitials)) & jumps;
+            }
+
+            if (reachable == 0)
+                return -1;
+            masks[REACHABLE + j] = reachable;
+        }
+
+        final long starts = masks[REACHABLE]
+                & masks[INITIALS + CODES[t9Constraint.charAt(0)]];
+        return starts == 0 ? -1 : Long.numberOfTrailingZeros(starts);
+    }
+
+    /**
+     * 从 first 开始重建匹配路径并写入匹配结果
+     *
+     * @param wordCount first 之前的词的数量
+     */
+    private static void addSpans(long[] masks, String t9Constraint, int first, int wordCount,
+                                 T9MatchSpans spans) {
+        final int cLen = t9Constraint.length();
+        final long initials = masks[ALL_INITIALS];
+        final long digits = masks[ALL_DIGITS];
+
+        // 按回溯的顺序重建路径: 只匹配声母, 匹配音节的前缀, 匹配完整的音节.
+        int last = first;
+        int cStart = 0;
+        while (cStart < cLen - 1) {
+            final long following = initials & (-2L << last);
+            if (following == 0)
+                break;
+
+            final int nextInitial = Long.numberOfTrailingZeros(following);
+            final int index = CODES[t9Constraint.charAt(cStart + 1)];
+            if ((masks[REACHABLE + cStart + 1] & masks[INITIALS + index] & (1L << nextInitial)) != 0) {
+                last = nextInitial;
+                cStart++;
+                continue;
+            }
+
+            final int spanLength = 1 + Long.numberOfTrailingZeros(~(digits >>> (last + 1)));
+            if (cLen - cStart <= spanLength)
+                break;
+
+            last = nextInitial;
+            cStart += spanLength;
+        }
+
+        // 路径经过 first 到 last 之间的所有声母, 空格将匹配段分开
+        final long words = initials | masks[SPACES];
+        long remaining = words & (-1L << first) & ((2L << last) - 1);
+        int start = -1;
+        while (remaining != 0) {
+            final long bit = remaining & -remaining;
+            if ((bit & initials) != 0) {
+                if (start == -1) {
+                    start = wordCount;
+                }
+            } else if (start > -1) {
+                spans.add(start, wordCount - start);
+                start = -1;
+            }
+
+            wordCount++;
+            remaining ^= bit;
+        }
+        spans.add(start, wordCount - start);
+    }
+
+}
@@ -0,0 +1,31 @@
+package cn.tinkling.t9;
+
+/**
+ * 取消标记
+ * <p>
+ * 由发起搜索的一方持有, 在查询过时(例如输入了新的数字)时调用 {@link #cancel()}.
+ * 搜索在处理每一块条目之前检查该标记, 被取消后不再继续匹配.
+ * <p>
+ * 该类是线程安全的, 可以在任意线程中取消.
+ *
+ * @see T9StreamingSearcher
+ */
+public final class T9CancellationToken {
+
+    private volatile boolean mCancelled;
+
+    /**
+     * 取消搜索, 重复调用没有影响.
+     */
+    public void cancel() {
+        mCancelled = true;
+    }
+
+    /**
+     * @return <code>true</code> - 如果已被取消.
+     */
+    public boolean isCancelled() {
+        return mCancelled;
+    }
+
+}
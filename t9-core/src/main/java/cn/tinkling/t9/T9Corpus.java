@@ -0,0 +1,261 @@
+package cn.tinkling.t9;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * 紧凑存储的 T9 语料
+ * <p>
+ * 所有条目的 t9 key 和电话号码保存在同一个字符串中, 每个条目只占用两个偏移量, 而不是若干个对象.
+ * 条目以ID访问, 匹配直接在其中的区间上进行, 不需要为每个条目创建字符串.
+ * <p>
+ * 不可变, 可被多个线程同时搜索.
+ *
+ * <pre>
+ * 布局:
+ * key_0 ; key_1 ; ... ; key_n-1 ; number_0 ; number_1 ; ... ; number_n-1
+ * </pre>
+ */
+public final class T9Corpus {
+
+    private final String mArena;
+    private final T9KeyColumn mKeys;
+    /**
+     * 每个电话号码的起始位置, 最后一个元素为总长度加1.
+     */
+    private final int[] mNumberOffsets;
+
+    private T9Corpus(String arena, int[] keyOffsets, int[] numberOffsets) {
+        mArena = arena;
+        mKeys = new T9KeyColumn(arena, keyOffsets);
+        mNumberOffsets = numberOffsets;
+    }
+
+    /**
+     * @param t9Keys       t9 keys, <code>null</code> 被视为空的 key.
+     * @param phoneNumbers 与 t9Keys 一一对应的电话号码, <code>null</code> 被视为空的号码.
+     * @return 语料, 条目ID为输入中的索引.
+     * @throws IllegalArgumentException 如果 t9Keys 与 phoneNumbers 的长度不同.
+     */
+    @Nonnull
+    public static T9Corpus of(@Nonnull String[] t9Keys, @Nonnull String[] phoneNumbers) {
+        final int size = t9Keys.length;
+        if (phoneNumbers.length != size) {
+            throw new IllegalArgumentException(
+                    "t9Keys.length=" + size + ", phoneNumbers.length=" + phoneNumbers.length);
+        }
+
+        int length = 0;
+        for (int i = 0; i < size; i++) {
+            length += lengthOf(t9Keys[i]) + lengthOf(phoneNumbers[i]);
+        }
+
+        StringBuilder sb = new StringBuilder(length + size * 2);
+        final int[] keyOffsets = new int[size + 1];
+        final int[] numberOffsets = new int[size + 1];
+        append(sb, t9Keys, keyOffsets);
+        sb.append(T9Utils.T9_KEYS_DIVIDER);
+        append(sb, phoneNumbers, numberOffsets);
+
+        return new T9Corpus(sb.toString(), keyOffsets, numberOffsets);
+    }
+
+    /**
+     * @see #of(String[], String[])
+     */
+    @Nonnull
+    public static T9Corpus of(@Nonnull List<String> t9Keys, @Nonnull List<String> phoneNumbers) {
+        return of(t9Keys.toArray(new String[t9Keys.size()]),
+                phoneNumbers.toArray(new String[phoneNumbers.size()]));
+    }
+
+    private static int lengthOf(String str) {
+        return str != null ? str.length() : 0;
+    }
+
+    private static void append(StringBuilder sb, String[] values, int[] offsets) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                sb.append(T9Utils.T9_KEYS_DIVIDER);
+            }
+            offsets[i] = sb.length();
+            if (values[i] != null) {
+                sb.append(values[i]);
+            }
+        }
+        offsets[values.length] = sb.length() + 1;
+    }
+
+    /**
+     * @return 条目数量
+     */
+    public int size() {
+        return mNumberOffsets.length - 1;
+    }
+
+    /**
+     * @return 所有条目的 t9 key, 与语料共用存储.
+     */
+    @Nonnull
+    public T9KeyColumn keys() {
+        return mKeys;
+    }
+
+    /**
+     * @param id 条目ID
+     * @return t9 key
+     * @throws IndexOutOfBoundsException 如果条目ID无效.
+     */
+    @Nonnull
+    public String getT9Key(int id) {
+        return mKeys.getT9Key(id);
+    }
+
+    /**
+     * @param id 条目ID
+     * @return 电话号码
+     * @throws IndexOutOfBoundsException 如果条目ID无效.
+     */
+    @Nonnull
+    public String getPhoneNumber(int id) {
+        if (id < 0 || id >= size()) {
+            throw new IndexOutOfBoundsException("id=" + id + ", size=" + size());
+        }
+        return mArena.substring(mNumberOffsets[id], mNumberOffsets[id + 1] - 1);
+    }
+
+    /**
+     * 名称匹配, 设置了 {@link T9MetricsListener} 时回调一次
+     * {@link T9MetricsListener#onBatchMatch(int, int, int, long)}.
+     *
+     * @param constraint the constraint.
+     * @param sink       按条目ID升序接收匹配的条目
+     * @return 匹配的条目数量
+     * @see T9Matcher#matchAll(T9KeyColumn, String, T9HitSink)
+     */
+    public int matchNames(@Nullable String constraint, @Nonnull T9HitSink sink) {
+        return T9Matcher.matchAll(mKeys, constraint, sink);
+    }
+
+    /**
+     * 电话号码匹配, 结果与对每个号码调用 {@link T9Matcher#matchesNumber(String, String, T9MatchSpans)} 相同.
+     * <p>
+     * 一次扫描所有号码查找 constraint, 匹配过程中不会分配新的对象.
+     * 与 {@link T9Matcher#matchesNumber(String, String)} 一样, 电话号码匹配不会回调 {@link T9MetricsListener}.
+     *
+     * @param constraint the constraint.
+     * @param sink       按条目ID升序接收匹配的条目
+     * @return 匹配的条目数量
+     */
+    public int matchNumbers(@Nullable String constraint, @Nonnull T9HitSink sink) {
+        if (T9Utils.isEmpty(constraint))
+            return 0;
+
+        final int[] offsets = mNumberOffsets;
+        final int cLen = constraint.length();
+        T9MatchSpans spans = T9Utils.getReusableMatchSpans();
+        try {
+            int hitCount = 0;
+            int id = 0;
+            int start = offsets[0];
+            while (true) {
+                final int index = mArena.indexOf(constraint, start);
+                if (index < 0)
+                    break;
+
+                while (offsets[id + 1] <= index) {
+                    id++;
+                }
+
+                // 号码中第一个出现的位置跨越了号码的末尾时, 之后的位置也一定跨越末尾
+                final int end = offsets[id + 1] - 1;
+                if (index + cLen <= end) {
+                    spans.reset();
+                    spans.add(index - offsets[id], cLen);
+                    sink.onHit(id, spans);
+                    hitCount++;
+                }
+                start = end + 1;
+            }
+            return hitCount;
+        } finally {
+            T9Utils.recycleMatchSpans(spans);
+        }
+    }
+
+    /**
+     * 搜索
+     *
+     * @param constraint the constraint.
+     * @return 按条目ID升序排列的匹配结果, 名称或电话号码匹配的条目都会被包含.
+     * @see #matchNames(String, T9HitSink)
+     * @see #matchNumbers(String, T9HitSink)
+     */
+    @Nonnull
+    public List<T9Hit> search(@Nullable String constraint) {
+        List<T9Hit> hits = new ArrayList<>();
+        if (T9Utils.isEmpty(constraint))
+            return hits;
+
+        NumberHits numberHits = new NumberHits();
+        matchNumbers(constraint, numberHits);
+        MergingSink sink = new MergingSink(numberHits, hits);
+        matchNames(constraint, sink);
+        sink.flush(Integer.MAX_VALUE);
+        return hits;
+    }
+
+    private static final class NumberHits implements T9HitSink {
+        final IntList mIds = new IntList();
+        final List<T9MatchInfo> mMatchInfos = new ArrayList<>();
+
+        @Override
+        public void onHit(int id, @Nonnull T9MatchSpans spans) {
+            mIds.add(id);
+            mMatchInfos.add(spans.toMatchInfo());
+        }
+    }
+
+    /**
+     * 按条目ID合并名称和电话号码的匹配结果
+     */
+    private static final class MergingSink implements T9HitSink {
+        private final NumberHits mNumberHits;
+        private final List<T9Hit> mHits;
+        private int mNext;
+
+        MergingSink(NumberHits numberHits, List<T9Hit> hits) {
+            mNumberHits = numberHits;
+            mHits = hits;
+        }
+
+        @Override
+        public void onHit(int id, @Nonnull T9MatchSpans spans) {
+            flush(id);
+
+            T9MatchInfo numberMatchInfo;
+            if (mNext < mNumberHits.mIds.size() && mNumberHits.mIds.get(mNext) == id) {
+                numberMatchInfo = mNumberHits.mMatchInfos.get(mNext++);
+            } else {
+                numberMatchInfo = new T9MatchInfo();
+            }
+            mHits.add(new T9Hit(id, spans.toMatchInfo(), numberMatchInfo));
+        }
+
+        /**
+         * 添加ID小于 id 的只有电话号码匹配的条目
+         */
+        void flush(int id) {
+            final IntList ids = mNumberHits.mIds;
+            while (mNext < ids.size() && ids.get(mNext) < id) {
+                mHits.add(new T9Hit(ids.get(mNext), new T9MatchInfo(),
+                        mNumberHits.mMatchInfos.get(mNext)));
+                mNext++;
+            }
+        }
+    }
+
+}
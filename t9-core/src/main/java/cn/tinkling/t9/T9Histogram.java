@@ -0,0 +1,167 @@
+package cn.tinkling.t9;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 非负整数值的直方图
+ * <p>
+ * 与 HdrHistogram 相同, 使用对数-线性的桶: 小于 {@value #SUB_BUCKET_COUNT} 的值每个值一个桶,
+ * 之后每个2的幂区间平均分为 {@value #SUB_BUCKET_COUNT} / 2 个桶, 相对误差不超过 1/16.
+ * 桶的数量固定, 记录时不分配内存.
+ * <p>
+ * 该类是线程安全的. 并发记录时读取到的各项统计值之间可能不完全一致.
+ */
+public final class T9Histogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+
+    /**
+     * 最大的值为 {@link Long#MAX_VALUE}, 最高位为62.
+     */
+    private static final int BUCKET_COUNT =
+            indexOf(Long.MAX_VALUE) + 1;
+
+    private final AtomicLongArray mCounts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong mTotalCount = new AtomicLong();
+    private final AtomicLong mSum = new AtomicLong();
+    private final AtomicLong mMax = new AtomicLong();
+
+    /**
+     * 记录一个值, 负数被记为0.
+     *
+     * @param value 值
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+
+        mCounts.incrementAndGet(indexOf(value));
+        mTotalCount.incrementAndGet();
+        mSum.addAndGet(value);
+
+        long max;
+        while (value > (max = mMax.get())) {
+            if (mMax.compareAndSet(max, value))
+                break;
+        }
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT)
+            return (int) value;
+
+        // 最高的 SUB_BUCKET_BITS 位决定桶的位置
+        final int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKET_HALF_COUNT + (int) (value >>> shift);
+    }
+
+    /**
+     * 清除所有记录
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            mCounts.set(i, 0);
+        }
+        mTotalCount.set(0);
+        mSum.set(0);
+        mMax.set(0);
+    }
+
+    /**
+     * @return 记录的值的数量
+     */
+    public long getCount() {
+        return mTotalCount.get();
+    }
+
+    /**
+     * @return 最大值, 没有记录时为0.
+     */
+    public long getMax() {
+        return mMax.get();
+    }
+
+    /**
+     * @return 平均值, 没有记录时为0.
+     */
+    public double getMean() {
+        final long count = mTotalCount.get();
+        return count == 0 ? 0 : (double) mSum.get() / count;
+    }
+
+    /**
+     * @param percentile 百分位, 0~100.
+     * @return 不小于该百分位上的值的桶上限(不超过最大值), 没有记录时为0.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += mCounts.get(i);
+        }
+        if (total == 0)
+            return 0;
+
+        final double p = Math.min(Math.max(percentile, 0), 100);
+        final long target = Math.max(1, (long) Math.ceil(p / 100 * total));
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            count += mCounts.get(i);
+            if (count >= target) {
+                return Math.min(getBucketHighValue(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * @return 桶的数量, 用于导出原始数据.
+     */
+    public int getBucketCount() {
+        return BUCKET_COUNT;
+    }
+
+    /**
+     * @param bucket 桶的索引
+     * @return 桶中记录的值的数量
+     */
+    public long getBucketCountAt(int bucket) {
+        return mCounts.get(bucket);
+    }
+
+    /**
+     * @param bucket 桶的索引
+     * @return 桶中最小的值
+     */
+    public long getBucketLowValue(int bucket) {
+        if (bucket < SUB_BUCKET_COUNT)
+            return bucket;
+
+        final int shift = bucket / SUB_BUCKET_HALF_COUNT - 1;
+        return (long) (bucket - shift * SUB_BUCKET_HALF_COUNT) << shift;
+    }
+
+    /**
+     * @param bucket 桶的索引
+     * @return 桶中最大的值
+     */
+    public long getBucketHighValue(int bucket) {
+        return bucket == BUCKET_COUNT - 1 ? Long.MAX_VALUE : getBucketLowValue(bucket + 1) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "T9Histogram{" +
+               "count=" + getCount() +
+               ", mean=" + String.format("%.1f", getMean()) +
+               ", p50=" + getValueAtPercentile(50) +
+               ", p90=" + getValueAtPercentile(90) +
+               ", p99=" + getValueAtPercentile(99) +
+               ", max=" + getMax() +
+               '}';
+    }
+
+}
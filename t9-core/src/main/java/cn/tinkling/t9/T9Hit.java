@@ -0,0 +1,56 @@
+package cn.tinkling.t9;
+
+import javax.annotation.Nonnull;
+
+/**
+ * T9 搜索结果
+ */
+public final class T9Hit {
+
+    private final int mId;
+    private final T9MatchInfo mNameMatchInfo;
+    private final T9MatchInfo mPhoneNumberMatchInfo;
+
+    T9Hit(int id, @Nonnull T9MatchInfo nameMatchInfo) {
+        this(id, nameMatchInfo, new T9MatchInfo());
+    }
+
+    T9Hit(int id, @Nonnull T9MatchInfo nameMatchInfo, @Nonnull T9MatchInfo phoneNumberMatchInfo) {
+        mId = id;
+        mNameMatchInfo = nameMatchInfo;
+        mPhoneNumberMatchInfo = phoneNumberMatchInfo;
+    }
+
+    /**
+     * @return 条目ID
+     */
+    public int id() {
+        return mId;
+    }
+
+    /**
+     * @return 名称的匹配信息
+     */
+    @Nonnull
+    public T9MatchInfo nameMatchInfo() {
+        return mNameMatchInfo;
+    }
+
+    /**
+     * @return 电话号码的匹配信息
+     */
+    @Nonnull
+    public T9MatchInfo phoneNumberMatchInfo() {
+        return mPhoneNumberMatchInfo;
+    }
+
+    @Override
+    public String toString() {
+        return "T9Hit{" +
+               "mId=" + mId +
+               ", mNameMatchInfo=" + mNameMatchInfo +
+               ", mPhoneNumberMatchInfo=" + mPhoneNumberMatchInfo +
+               '}';
+    }
+
+}
@@ -0,0 +1,20 @@
+package cn.tinkling.t9;
+
+import javax.annotation.Nonnull;
+
+/**
+ * 接收批量匹配的结果
+ *
+ * @see T9Matcher#matchAll(T9KeyColumn, String, T9HitSink)
+ */
+public interface T9HitSink {
+
+    /**
+     * 条目已匹配
+     *
+     * @param id    条目ID, 即 key 在 {@link T9KeyColumn} 中的索引.
+     * @param spans 匹配结果, 会被下一个条目复用, 只在回调期间有效.
+     */
+    void onHit(int id, @Nonnull T9MatchSpans spans);
+
+}
@@ -0,0 +1,165 @@
+package cn.tinkling.t9;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * T9 索引
+ * <p>
+ * 按首字母以及首字母后续的音节数字序列建立倒排表，查询时只对候选条目执行
+ * {@link T9Matcher#matches(String, String)}，因此结果的匹配信息与逐条匹配完全一致。
+ * <p>
+ * 索引一经创建即不可变，可被多个线程同时查询。
+ */
+public final class T9Index {
+
+    private static final int T9_KEY_COUNT = 14;
+    private static final int BIGRAM_OFFSET = T9_KEY_COUNT;
+    private static final int POSTING_COUNT = T9_KEY_COUNT + T9_KEY_COUNT * T9_KEY_COUNT;
+
+    private final String[] mKeys;
+    private final int[][] mPostings;
+
+    /**
+     * @param t9Keys T9 keys, 由 {@link T9Utils#buildT9Key(String, PinyinProvider)} 生成.
+     *               条目ID即为key在列表中的位置, 允许为<code>null</code>.
+     */
+    public T9Index(@Nonnull List<String> t9Keys) {
+        final int size = t9Keys.size();
+        mKeys = t9Keys.toArray(new String[size]);
+
+        IntList[] postings = new IntList[POSTING_COUNT];
+        for (int id = 0; id < size; id++) {
+            String t9Key = mKeys[id];
+            if (!T9Utils.isEmpty(t9Key)) {
+                indexKey(postings, t9Key, id);
+            }
+        }
+
+        mPostings = new int[POSTING_COUNT][];
+        for (int i = 0; i < POSTING_COUNT; i++) {
+            mPostings[i] = postings[i] == null ? new int[0] : postings[i].toArray();
+        }
+    }
+
+    private static void indexKey(IntList[] postings, String t9Key, int id) {
+        final int len = t9Key.length();
+        int begin = 0;
+        while (begin < len) {
+            int end = t9Key.indexOf(T9Utils.T9_KEYS_DIVIDER, begin);
+            if (end < 0)
+                end = len;
+
+            for (int i = begin; i < end; i++) {
+                char c = t9Key.charAt(i);
+                if (!T9Utils.isInitial(c))
+                    continue;
+
+                int first = toIndex(T9Utils.convertInitialToDigit(c));
+                if (first < 0)
+                    continue;
+
+                addPosting(postings, first, id);
+
+                // 同一音节的下一个数字
+                if (i + 1 < end) {
+                    int next = toIndex(t9Key.charAt(i + 1));
+                    if (next >= 0) {
+                        addPosting(postings, bigram(first, next), id);
+                    }
+                }
+
+                // 下一个首字母
+                for (int j = i + 1; j < end; j++) {
+                    char n = t9Key.charAt(j);
+                    if (T9Utils.isInitial(n)) {
+                        int next = toIndex(T9Utils.convertInitialToDigit(n));
+                        if (next >= 0) {
+                            addPosting(postings, bigram(first, next), id);
+                        }
+                        break;
+                    }
+                }
+            }
+
+            begin = end + 1;
+        }
+    }
+
+    private static void addPosting(IntList[] postings, int posting, int id) {
+        IntList list = postings[posting];
+        if (list == null) {
+            postings[posting] = list = new IntList();
+        }
+        // 条目按ID递增的顺序加入, 只需检查最后一个即可去重
+        if (list.last() != id) {
+            list.add(id);
+        }
+    }
+
+    private static int toIndex(char c) {
+        return T9Utils.isValidT9Key(c) ? T9Utils.convertT9CharToIndex(c) : -1;
+    }
+
+    private static int bigram(int first, int second) {
+        return BIGRAM_OFFSET + first * T9_KEY_COUNT + second;
+    }
+
+    /**
+     * @return 条目数量
+     */
+    public int size() {
+        return mKeys.length;
+    }
+
+    /**
+     * @param id 条目ID
+     * @return T9 key.
+     */
+    @Nullable
+    public String getKey(int id) {
+        return mKeys[id];
+    }
+
+    /**
+     * 搜索
+     *
+     * @param t9Constraint the constraint.
+     * @return 按条目ID升序排列的匹配结果
+     * @see T9Matcher#matches(String, String)
+     */
+    @Nonnull
+    public List<T9Hit> search(@Nullable String t9Constraint) {
+        List<T9Hit> hits = new ArrayList<>();
+        if (T9Utils.isEmpty(t9Constraint))
+            return hits;
+
+        if (!T9Utils.isValidT9Key(t9Constraint)) {
+            // 无法使用索引, 退化为逐条匹配
+            for (int id = 0; id < mKeys.length; id++) {
+                matches(hits, id, t9Constraint);
+            }
+            return hits;
+        }
+
+        int first = T9Utils.convertT9CharToIndex(t9Constraint.charAt(0));
+        int[] candidates = t9Constraint.length() == 1
+                ? mPostings[first]
+                : mPostings[bigram(first, T9Utils.convertT9CharToIndex(t9Constraint.charAt(1)))];
+        for (int id : candidates) {
+            matches(hits, id, t9Constraint);
+        }
+        return hits;
+    }
+
+    private void matches(List<T9Hit> hits, int id, String t9Constraint) {
+        T9MatchInfo matchInfo = T9Matcher.matches(mKeys[id], t9Constraint);
+        if (matchInfo.found()) {
+            hits.add(new T9Hit(id, matchInfo));
+        }
+    }
+
+}
@@ -0,0 +1,336 @@
+package cn.tinkling.t9;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import javax.annotation.Nonnull;
+
+/**
+ * 可持久化的 T9 key 缓存
+ * <p>
+ * 以名称的64位指纹为键缓存 {@link T9Utils#buildT9Key(String, PinyinProvider)} 的结果,
+ * 只有新的或者修改过的名称才需要重新查询拼音并生成 key.
+ * <p>
+ * 缓存文件记录了 key 的格式版本以及调用者指定的拼音提供者版本, 任一版本不一致时缓存文件中的内容全部作废.
+ * {@link #save()} 只写入本次打开后被查询过的条目, 因此已删除的名称会在下一次保存时从文件中移除.
+ * <p>
+ * 该类不是线程安全的.
+ *
+ * <pre>
+ * 文件格式(大端序):
+ * int    magic            'T9KC'
+ * int    formatVersion    {@link #FORMAT_VERSION}
+ * int    providerVersion  拼音提供者的版本
+ * int    count            条目数量
+ * count * {
+ *     long   fingerprint  名称的指纹
+ *     UTF    t9Key        T9 key
+ * }
+ * </pre>
+ */
+public final class T9KeyCache {
+
+    static final int MAGIC = ('T' << 24) | ('9' << 16) | ('K' << 8) | 'C';
+
+    /**
+     * 当前的 key 格式版本, 生成 key 的规则改变时递增.
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * writeUTF 能写入的最大字节数, 每个字符最多占3个字节. 更长的 key 不会被缓存.
+     */
+    private static final int MAX_KEY_LENGTH = 0xFFFF;
+
+    private static final int HEADER_SIZE = 4 * 4;
+    /**
+     * 每个条目至少占用的字节数: 指纹及 UTF 的长度.
+     */
+    private static final int MIN_ENTRY_SIZE = 8 + 2;
+
+    private final File mFile;
+    private final int mProviderVersion;
+
+    // 开放寻址的哈希表, 指纹为0的名称使用 mZeroKey
+    private long[] mFingerprints;
+    private String[] mKeys;
+    private boolean[] mUsed;
+    private int mSize;
+
+    private String mZeroKey;
+    private boolean mZeroUsed;
+
+    private boolean mDirty;
+
+    private T9KeyCache(@Nonnull File file, int providerVersion) {
+        mFile = file;
+        mProviderVersion = providerVersion;
+        allocate(16);
+    }
+
+    /**
+     * 打开缓存
+     * <p>
+     * 文件不存在, 格式无效或版本不一致时得到空的缓存, 不会抛出异常.
+     *
+     * @param file            缓存文件
+     * @param providerVersion 拼音提供者的版本, 提供者返回的拼音改变时应当递增.
+     * @return 缓存
+     * @throws IOException 如果读取文件时发生错误.
+     */
+    @Nonnull
+    public static T9KeyCache open(@Nonnull File file, int providerVersion) throws IOException {
+        T9KeyCache cache = new T9KeyCache(file, providerVersion);
+
+        DataInputStream in;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024));
+        } catch (FileNotFoundException e) {
+            return cache;
+        }
+
+        try {
+            if (in.readInt() != MAGIC
+                    || in.readInt() != FORMAT_VERSION
+                    || in.readInt() != providerVersion) {
+                cache.mDirty = true;
+                return cache;
+            }
+
+            // 条目数量不能超过文件能容纳的数量, 否则文件已损坏, 不能按它分配哈希表.
+            final int count = in.readInt();
+            if (count < 0 || count > (file.length() - HEADER_SIZE) / MIN_ENTRY_SIZE) {
+                cache.mDirty = true;
+                return cache;
+            }
+
+            cache.allocate(tableSize(count));
+            for (int i = 0; i < count; i++) {
+                long fingerprint = in.readLong();
+                cache.put(fingerprint, in.readUTF(), false);
+            }
+        } catch (EOFException | UTFDataFormatException e) {
+            // 文件不完整或已损坏, 保留已读取的条目
+            cache.mDirty = true;
+        } finally {
+            in.close();
+        }
+
+        return cache;
+    }
+
+    /**
+     * 获取名称的 T9 key, 缓存中没有时生成并加入缓存.
+     *
+     * @param name     名称
+     * @param provider 拼音提供者
+     * @return T9 key.
+     * @see T9Utils#buildT9Key(String, PinyinProvider)
+     */
+    @Nonnull
+    public String getT9Key(@Nonnull String name, @Nonnull PinyinProvider provider) {
+        final long fingerprint = fingerprint(name);
+        String key = get(fingerprint);
+        if (key == null) {
+            key = T9Utils.buildT9Key(name, provider);
+            put(fingerprint, key, true);
+            mDirty = true;
+        }
+        return key;
+    }
+
+    /**
+     * 批量获取 T9 key, 只有缓存中没有的名称才会被并行生成.
+     *
+     * @param names    名称
+     * @param provider pinyin provider, 会被多个线程同时调用, 必须是线程安全的.
+     * @param executor 用于执行生成任务的 executor.
+     * @return 与输入顺序一致的 T9 keys.
+     * @throws InterruptedException 如果等待生成任务完成时被中断.
+     * @see T9Utils#buildT9Keys(List, PinyinProvider, Executor)
+     */
+    @Nonnull
+    public List<String> getT9Keys(@Nonnull List<String> names, @Nonnull PinyinProvider provider,
+                                  @Nonnull Executor executor) throws InterruptedException {
+        final int size = names.size();
+        final String[] keys = new String[size];
+        final long[] fingerprints = new long[size];
+
+        List<String> missing = new ArrayList<>();
+        IntList missingIndexes = new IntList();
+        for (int i = 0; i < size; i++) {
+            String name = names.get(i);
+            fingerprints[i] = fingerprint(name);
+            keys[i] = get(fingerprints[i]);
+            if (keys[i] == null) {
+                missing.add(name);
+                missingIndexes.add(i);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            List<String> built = T9Utils.buildT9Keys(missing, provider, executor);
+            for (int i = 0; i < missingIndexes.size(); i++) {
+                final int index = missingIndexes.get(i);
+                keys[index] = built.get(i);
+                put(fingerprints[index], keys[index], true);
+            }
+            mDirty = true;
+        }
+
+        return Arrays.asList(keys);
+    }
+
+    /**
+     * 保存缓存, 只写入本次打开后被查询过的条目. 缓存没有改变时不会写入文件.
+     *
+     * @throws IOException 如果写入文件时发生错误.
+     */
+    public void save() throws IOException {
+        int count = mZeroUsed ? 1 : 0;
+        for (int i = 0; i < mUsed.length; i++) {
+            if (mUsed[i]) {
+                count++;
+            }
+        }
+
+        if (!mDirty && count == mSize + (mZeroKey != null ? 1 : 0))
+            return;
+
+        // 先写入临时文件再替换, 避免写入中断时留下不完整的文件
+        File temp = new File(mFile.getPath() + ".tmp");
+        DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(temp), 64 * 1024));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(mProviderVersion);
+            out.writeInt(count);
+            if (mZeroUsed) {
+                out.writeLong(0);
+                out.writeUTF(mZeroKey);
+            }
+            for (int i = 0; i < mUsed.length; i++) {
+                if (mUsed[i]) {
+                    out.writeLong(mFingerprints[i]);
+                    out.writeUTF(mKeys[i]);
+                }
+            }
+        } finally {
+            out.close();
+        }
+
+        if (!temp.renameTo(mFile)) {
+            //noinspection ResultOfMethodCallIgnored
+            temp.delete();
+            throw new IOException("Failed to rename " + temp + " to " + mFile);
+        }
+        mDirty = false;
+    }
+
+    /**
+     * 名称的64位指纹(FNV-1a)
+     */
+    static long fingerprint(@Nonnull String name) {
+        long hash = FNV_OFFSET_BASIS;
+        final int len = name.length();
+        for (int i = 0; i < len; i++) {
+            final char c = name.charAt(i);
+            hash = (hash ^ (c & 0xFF)) * FNV_PRIME;
+            hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static int tableSize(int count) {
+        int size = 16;
+        while (size < count * 2 && size < (1 << 30)) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    private void allocate(int capacity) {
+        mFingerprints = new long[capacity];
+        mKeys = new String[capacity];
+        mUsed = new boolean[capacity];
+        mSize = 0;
+    }
+
+    private String get(long fingerprint) {
+        if (fingerprint == 0) {
+            mZeroUsed |= mZeroKey != null;
+            return mZeroKey;
+        }
+
+        final int mask = mFingerprints.length - 1;
+        for (int i = mix(fingerprint) & mask; mFingerprints[i] != 0; i = (i + 1) & mask) {
+            if (mFingerprints[i] == fingerprint) {
+                mUsed[i] = true;
+                return mKeys[i];
+            }
+        }
+        return null;
+    }
+
+    private void put(long fingerprint, String key, boolean used) {
+        if (key.length() > MAX_KEY_LENGTH / 3)
+            return;
+
+        if (fingerprint == 0) {
+            mZeroKey = key;
+            mZeroUsed |= used;
+            return;
+        }
+
+        if ((mSize + 1) * 2 > mFingerprints.length) {
+            long[] fingerprints = mFingerprints;
+            String[] keys = mKeys;
+            boolean[] usedFlags = mUsed;
+            allocate(mFingerprints.length * 2);
+            for (int i = 0; i < fingerprints.length; i++) {
+                if (fingerprints[i] != 0) {
+                    insert(fingerprints[i], keys[i], usedFlags[i]);
+                }
+            }
+        }
+
+        insert(fingerprint, key, used);
+    }
+
+    private void insert(long fingerprint, String key, boolean used) {
+        final int mask = mFingerprints.length - 1;
+        int i = mix(fingerprint) & mask;
+        while (mFingerprints[i] != 0 && mFingerprints[i] != fingerprint) {
+            i = (i + 1) & mask;
+        }
+
+        if (mFingerprints[i] == 0) {
+            mSize++;
+        }
+        mFingerprints[i] = fingerprint;
+        mKeys[i] = key;
+        mUsed[i] |= used;
+    }
+
+    private static int mix(long fingerprint) {
+        return (int) (fingerprint ^ (fingerprint >>> 32));
+    }
+
+}
@@ -0,0 +1,100 @@
+package cn.tinkling.t9;
+
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+/**
+ * 连续存储的一列 T9 key, 用于批量匹配.
+ * <p>
+ * 所有的 key 以 {@link T9Utils#T9_KEYS_DIVIDER} 分隔后连接为一个字符串, 条目之间的分隔与 key 中
+ * 各个选项之间的分隔相同, 因此匹配时可以一次扫描整列查找首字符的声母, 直接跳过不含该声母的条目.
+ * <p>
+ * 不可变, 可被多个线程同时匹配.
+ *
+ * @see T9Matcher#matchAll(T9KeyColumn, String, T9HitSink)
+ */
+public final class T9KeyColumn {
+
+    /**
+     * 连接后的 key, 之后可能还有其他内容(以 {@link T9Utils#T9_KEYS_DIVIDER} 分隔).
+     */
+    final String mKeys;
+    /**
+     * 每个 key 的起始位置, 最后一个元素为所有 key 的总长度加1.
+     */
+    final int[] mOffsets;
+
+    T9KeyColumn(String keys, int[] offsets) {
+        mKeys = keys;
+        mOffsets = offsets;
+    }
+
+    /**
+     * @param t9Keys t9 keys, <code>null</code> 被视为空的 key.
+     * @return key 列, 条目ID为 key 在输入中的索引.
+     */
+    @Nonnull
+    public static T9KeyColumn of(@Nonnull String[] t9Keys) {
+        final int size = t9Keys.length;
+        final int[] offsets = new int[size + 1];
+
+        int length = 0;
+        for (String t9Key : t9Keys) {
+            if (t9Key != null) {
+                length += t9Key.length();
+            }
+        }
+
+        StringBuilder sb = new StringBuilder(length + size);
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(T9Utils.T9_KEYS_DIVIDER);
+            }
+            offsets[i] = sb.length();
+            if (t9Keys[i] != null) {
+                sb.append(t9Keys[i]);
+            }
+        }
+        offsets[size] = sb.length() + 1;
+
+        return new T9KeyColumn(sb.toString(), offsets);
+    }
+
+    /**
+     * @param t9Keys t9 keys, <code>null</code> 被视为空的 key.
+     * @return key 列, 条目ID为 key 在输入中的索引.
+     */
+    @Nonnull
+    public static T9KeyColumn of(@Nonnull List<String> t9Keys) {
+        return of(t9Keys.toArray(new String[t9Keys.size()]));
+    }
+
+    /**
+     * @return 连接后的所有 key 的长度
+     */
+    int length() {
+        return mOffsets[mOffsets.length - 1] - 1;
+    }
+
+    /**
+     * @return 条目数量
+     */
+    public int size() {
+        return mOffsets.length - 1;
+    }
+
+    /**
+     * @param id 条目ID
+     * @return t9 key
+     * @throws IndexOutOfBoundsException 如果条目ID无效.
+     */
+    @Nonnull
+    public String getT9Key(int id) {
+        if (id < 0 || id >= size()) {
+            throw new IndexOutOfBoundsException("id=" + id + ", size=" + size());
+        }
+        return mKeys.substring(mOffsets[id], mOffsets[id + 1] - 1);
+    }
+
+}
@@ -0,0 +1,294 @@
+package cn.tinkling.t9;
+
+import java.util.Arrays;
+
+import javax.annotation.Nonnull;
+
+/**
+ * 前缀树形式的 T9 key
+ * <p>
+ * 多音字名称的 key 由多个选项组成, 各个选项通常只有某个字符的读音不同, 共有很长的前缀.
+ * 前缀树中每个节点对应一个字符的读音(或者一个空格), 各个选项共有的前缀只保存一次,
+ * 匹配时记录每个节点上 constraint 剩余部分的匹配结果, 因此共有的前缀只需要匹配一次.
+ * <p>
+ * 含有无法识别的字符的 key 不会被编译为前缀树, 匹配时直接使用原来的 key.
+ *
+ * @see T9Matcher#matches(T9KeyTrie, String, T9MatchSpans)
+ */
+public final class T9KeyTrie {
+
+    private static final int NO_NODE = -1;
+
+    private final String mT9Key;
+
+    /**
+     * 每个非空选项在 key 中的起始位置和结束位置, 按在 key 中的顺序排列.
+     */
+    private final int[] mAlternatives;
+
+    // 节点, 按创建的顺序排列. 节点对应的读音为 key 中 [mWordStarts[i], mWordEnds[i]) 的部分,
+    // 第一个根节点为0, 其余的根节点是它的兄弟节点.
+    private final int[] mWordStarts;
+    private final int[] mWordEnds;
+    /**
+     * 经过节点的第一个选项(即创建节点的选项)
+     */
+    private final int[] mFirstAlternatives;
+    private final int[] mFirstChildren;
+    private final int[] mNextSiblings;
+    private final int mNodeCount;
+
+    private T9KeyTrie(String t9Key, int[] alternatives, int[] wordStarts, int[] wordEnds,
+                      int[] firstAlternatives, int[] firstChildren, int[] nextSiblings,
+                      int nodeCount) {
+        mT9Key = t9Key;
+        mAlternatives = alternatives;
+        mWordStarts = wordStarts;
+        mWordEnds = wordEnds;
+        mFirstAlternatives = firstAlternatives;
+        mFirstChildren = firstChildren;
+        mNextSiblings = nextSiblings;
+        mNodeCount = nodeCount;
+    }
+
+    /**
+     * 编译 key
+     *
+     * @param t9Key t9 key.
+     * @return 前缀树形式的 key.
+     * @see T9Utils#buildT9Key(String, PinyinProvider)
+     */
+    @Nonnull
+    public static T9KeyTrie compile(@Nonnull String t9Key) {
+        final int len = t9Key.length();
+        int capacity = 16;
+        int[] alternatives = new int[8];
+        int[] wordStarts = new int[capacity];
+        int[] wordEnds = new int[capacity];
+        int[] firstAlternatives = new int[capacity];
+        int[] firstChildren = new int[capacity];
+        int[] nextSiblings = new int[capacity];
+        int nodeCount = 0;
+        int alternativeCount = 0;
+
+        int start = 0;
+        int end;
+        do {
+            end = t9Key.indexOf(T9Utils.T9_KEYS_DIVIDER, start);
+            if (end < 0)
+                end = len;
+
+            if (start < end) {
+                if (alternativeCount * 2 == alternatives.length) {
+                    alternatives = copyOf(alternatives, alternatives.length * 2);
+                }
+                alternatives[alternativeCount * 2] = start;
+                alternatives[alternativeCount * 2 + 1] = end;
+
+                int parent = NO_NODE;
+                int wordStart = start;
+                while (wordStart < end) {
+                    final int wordEnd = findWordEnd(t9Key, wordStart, end);
+                    if (wordEnd < 0) {
+                        return new T9KeyTrie(t9Key, null, null, null, null, null, null, 0);
+                    }
+
+                    // 查找相同读音的子节点
+                    final int wordLength = wordEnd - wordStart;
+                    int node = parent == NO_NODE ? (nodeCount > 0 ? 0 : NO_NODE) : firstChildren[parent];
+                    int last = NO_NODE;
+                    while (node != NO_NODE && !(wordEnds[node] - wordStarts[node] == wordLength
+                            && t9Key.regionMatches(wordStarts[node], t9Key, wordStart, wordLength))) {
+                        last = node;
+                        node = nextSiblings[node];
+                    }
+
+                    if (node == NO_NODE) {
+                        if (nodeCount == capacity) {
+                            capacity *= 2;
+                            wordStarts = copyOf(wordStarts, capacity);
+                            wordEnds = copyOf(wordEnds, capacity);
+                            firstAlternatives = copyOf(firstAlternatives, capacity);
+                            firstChildren = copyOf(firstChildren, capacity);
+                            nextSiblings = copyOf(nextSiblings, capacity);
+                        }
+
+                        node = nodeCount++;
+                        wordStarts[node] = wordStart;
+                        wordEnds[node] = wordEnd;
+                        firstAlternatives[node] = alternativeCount;
+                        firstChildren[node] = NO_NODE;
+                        nextSiblings[node] = NO_NODE;
+                        if (last != NO_NODE) {
+                            nextSiblings[last] = node;
+                        } else if (parent != NO_NODE) {
+                            firstChildren[parent] = node;
+                        }
+                    }
+
+                    parent = node;
+                    wordStart = wordEnd;
+                }
+
+                alternativeCount++;
+            }
+
+            start = end + 1;
+        } while (end < len);
+
+        return new T9KeyTrie(t9Key, copyOf(alternatives, alternativeCount * 2),
+                wordStarts, wordEnds, firstAlternatives, firstChildren, nextSiblings,
+                nodeCount);
+    }
+
+    /**
+     * 读音为一个声母及其后的T9数字, 或者一个空格.
+     *
+     * @return 读音的结束位置, 含有无法识别的字符时返回 -1.
+     */
+    private static int findWordEnd(String t9Key, int start, int end) {
+        final char c = t9Key.charAt(start);
+        if (c == ' ')
+            return start + 1;
+
+        if (!T9Utils.isInitial(c) || !T9Utils.isValidT9Key(T9Utils.convertInitialToDigit(c)))
+            return -1;
+
+        int i = start + 1;
+        while (i < end) {
+            final char digit = t9Key.charAt(i);
+            if (digit == ' ' || T9Utils.isInitial(digit))
+                break;
+            if (!T9Utils.isValidT9Key(digit))
+                return -1;
+            i++;
+        }
+        return i;
+    }
+
+    private static int[] copyOf(int[] array, int length) {
+        int[] copy = new int[length];
+        System.arraycopy(array, 0, copy, 0, Math.min(array.length, length));
+        return copy;
+    }
+
+    /**
+     * @return 原来的 key
+     */
+    @Nonnull
+    public String getT9Key() {
+        return mT9Key;
+    }
+
+    /**
+     * @return <code>true</code> - 如果 key 已被编译为前缀树, <code>false</code> - key 含有无法识别的字符.
+     */
+    public boolean isCompiled() {
+        return mAlternatives != null;
+    }
+
+    /**
+     * @return 前缀树的节点数量
+     */
+    public int getNodeCount() {
+        return mNodeCount;
+    }
+
+    int getAlternativeStart(int alternative) {
+        return mAlternatives[alternative * 2];
+    }
+
+    int getAlternativeEnd(int alternative) {
+        return mAlternatives[alternative * 2 + 1];
+    }
+
+    /**
+     * 查找第一个可以匹配的选项, 与 {@link T9Matcher} 依次匹配每个选项时的规则相同.
+     *
+     * @param t9Constraint the constraint, 长度不小于2且只含有有效的T9字符.
+     * @param spans        提供临时缓冲
+     * @return 选项的索引, 没有可以匹配的选项时返回 -1.
+     */
+    int findFirstAlternative(@Nonnull String t9Constraint, @Nonnull T9MatchSpans spans) {
+        final int cLen = t9Constraint.length();
+        final int size = mNodeCount * cLen;
+        if (spans.mMemo.length < size) {
+            spans.mMemo = new int[Math.max(size, spans.mMemo.length * 2)];
+        } else {
+            Arrays.fill(spans.mMemo, 0, size, 0);
+        }
+
+        final int none = mAlternatives.length / 2;
+        final char first = T9Utils.convertDigitToInitial(t9Constraint.charAt(0));
+        int result = none;
+        // 节点按创建的顺序排列, 经过节点的第一个选项不会减小
+        for (int node = 0; node < mNodeCount && mFirstAlternatives[node] < result; node++) {
+            if (mT9Key.charAt(mWordStarts[node]) == first) {
+                result = Math.min(result, matchesWord(node, t9Constraint, 0, spans.mMemo));
+            }
+        }
+        return result == none ? -1 : result;
+    }
+
+    /**
+     * 节点的声母已与 constraint 中 cStart 处的字符匹配, 查找可以匹配 constraint 剩余部分的第一个选项.
+     */
+    private int matchesWord(int node, String t9Constraint, int cStart, int[] memo) {
+        final int memoIndex = node * t9Constraint.length() + cStart;
+        if (memo[memoIndex] != 0)
+            return memo[memoIndex] - 1;
+
+        final int remaining = t9Constraint.length() - cStart;
+        final int wordStart = mWordStarts[node];
+        final int spanLength = mWordEnds[node] - wordStart;
+
+        int result;
+        if (remaining <= spanLength
+                && mT9Key.regionMatches(wordStart + 1, t9Constraint, cStart + 1, remaining - 1)) {
+            // 剩余部分为读音的前缀, 经过该节点的所有选项都可以匹配
+            result = mFirstAlternatives[node];
+        } else {
+            // 只匹配声母, 然后匹配下一个声母
+            result = matchesNextInitial(node, t9Constraint, cStart + 1, memo);
+            // 匹配完整的读音, 然后匹配下一个声母
+            if (remaining > spanLength && spanLength > 1
+                    && mT9Key.regionMatches(wordStart + 1, t9Constraint, cStart + 1, spanLength - 1)) {
+                result = Math.min(result,
+                        matchesNextInitial(node, t9Constraint, cStart + spanLength, memo));
+            }
+        }
+
+        memo[memoIndex] = result + 1;
+        return result;
+    }
+
+    /**
+     * 在节点之后(跳过空格)的声母中查找与 constraint 中 cStart 处的字符匹配并且可以匹配剩余部分的第一个选项.
+     */
+    private int matchesNextInitial(int node, String t9Constraint, int cStart, int[] memo) {
+        final int none = mAlternatives.length / 2;
+        final char initial = T9Utils.convertDigitToInitial(t9Constraint.charAt(cStart));
+        final boolean last = cStart == t9Constraint.length() - 1;
+
+        int result = none;
+        for (int child = mFirstChildren[node];
+             child != NO_NODE && mFirstAlternatives[child] < result;
+             child = mNextSiblings[child]) {
+            final char c = mT9Key.charAt(mWordStarts[child]);
+            if (c == ' ') {
+                result = Math.min(result, matchesNextInitial(child, t9Constraint, cStart, memo));
+            } else if (c == initial) {
+                result = Math.min(result, last
+                        ? mFirstAlternatives[child]
+                        : matchesWord(child, t9Constraint, cStart, memo));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return mT9Key;
+    }
+
+}
@@ -0,0 +1,234 @@
+package cn.tinkling.t9;
+
+import java.util.Arrays;
+
+import javax.annotation.Nonnull;
+
+/**
+ * 格(lattice)形式的 T9 key
+ * <p>
+ * 与 {@link T9Utils#buildT9Key(String, PinyinProvider)} 把多音字的每种读音组合展开为一个候选 key 不同,
+ * lattice key 中每个字符对应一个槽位, 槽位中并列保存该字符的所有读音, 每个读音只保存一次.
+ * 因此无论名称中有多少个多音字, key 的大小都与名称的长度成线性关系.
+ * <p>
+ * 字符串形式中, 只有一个读音的槽位直接写出该读音, 有多个读音的槽位写作 <code>(读音1|读音2|...)</code>.
+ *
+ * @see T9Utils#buildT9LatticeKey(String, PinyinProvider)
+ * @see T9LatticeMatcher
+ */
+public final class T9LatticeKey {
+
+    private static final char GROUP_START = '(';
+    private static final char GROUP_END = ')';
+    private static final char READINGS_DIVIDER = '|';
+
+    /**
+     * 所有读音顺序连接而成的符号
+     */
+    final String mSymbols;
+    /**
+     * 每个读音在 {@link #mSymbols} 中的起始位置, 最后一个元素为 {@link #mSymbols} 的长度.
+     */
+    final int[] mReadings;
+    /**
+     * 每个槽位的第一个读音的索引, 最后一个元素为读音的总数.
+     */
+    final int[] mSlots;
+
+    T9LatticeKey(@Nonnull String symbols, @Nonnull int[] readings, @Nonnull int[] slots) {
+        mSymbols = symbols;
+        mReadings = readings;
+        mSlots = slots;
+    }
+
+    /**
+     * @return 槽位数量, 即原始字符的数量.
+     */
+    public int getSlotCount() {
+        return mSlots.length - 1;
+    }
+
+    /**
+     * @param slot 槽位
+     * @return 指定槽位的读音数量
+     */
+    public int getReadingCount(int slot) {
+        return mSlots[slot + 1] - mSlots[slot];
+    }
+
+    /**
+     * @param slot  槽位
+     * @param index 读音的索引
+     * @return 指定槽位的读音
+     */
+    @Nonnull
+    public String getReading(int slot, int index) {
+        if (index < 0 || index >= getReadingCount(slot)) {
+            throw new IndexOutOfBoundsException("slot=" + slot + ", index=" + index);
+        }
+
+        int reading = mSlots[slot] + index;
+        return mSymbols.substring(mReadings[reading], mReadings[reading + 1]);
+    }
+
+    /**
+     * 解析字符串形式的 lattice key.
+     *
+     * @param latticeKey 字符串形式的 lattice key.
+     * @return lattice key.
+     * @throws IllegalArgumentException 如果 latticeKey 的格式无效.
+     * @see #toString()
+     */
+    @Nonnull
+    public static T9LatticeKey parse(@Nonnull String latticeKey) {
+        Builder builder = new Builder();
+
+        final int len = latticeKey.length();
+        int i = 0;
+        while (i < len) {
+            char c = latticeKey.charAt(i);
+            if (c == GROUP_START) {
+                int end = latticeKey.indexOf(GROUP_END, i);
+                if (end < 0) {
+                    throw new IllegalArgumentException("INVALID LATTICE KEY: " + latticeKey);
+                }
+
+                builder.startSlot();
+                int start = i + 1;
+                for (int j = start; j <= end; j++) {
+                    char cc = latticeKey.charAt(j);
+                    if (cc == READINGS_DIVIDER || cc == GROUP_END) {
+                        if (j == start) {
+                            throw new IllegalArgumentException("INVALID LATTICE KEY: " + latticeKey);
+                        }
+                        builder.addReading(latticeKey.substring(start, j));
+                        start = j + 1;
+                    }
+                }
+                i = end + 1;
+            } else if (c == GROUP_END || c == READINGS_DIVIDER) {
+                throw new IllegalArgumentException("INVALID LATTICE KEY: " + latticeKey);
+            } else {
+                int end = i + 1;
+                if (c != ' ') {
+                    while (end < len && isSyllableDigit(latticeKey.charAt(end))) {
+                        end++;
+                    }
+                }
+
+                builder.startSlot();
+                builder.addReading(latticeKey.substring(i, end));
+                i = end;
+            }
+        }
+
+        return builder.build();
+    }
+
+    private static boolean isSyllableDigit(char c) {
+        return c != ' ' && c != GROUP_START && !T9Utils.isInitial(c);
+    }
+
+    /**
+     * @return 字符串形式的 lattice key.
+     * @see #parse(String)
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = T9Utils.getReusableStringBuilder();
+
+        final int slotCount = getSlotCount();
+        for (int slot = 0; slot < slotCount; slot++) {
+            final int first = mSlots[slot];
+            final int last = mSlots[slot + 1];
+            if (last - first > 1) {
+                sb.append(GROUP_START);
+            }
+            for (int reading = first; reading < last; reading++) {
+                if (reading > first) {
+                    sb.append(READINGS_DIVIDER);
+                }
+                sb.append(mSymbols, mReadings[reading], mReadings[reading + 1]);
+            }
+            if (last - first > 1) {
+                sb.append(GROUP_END);
+            }
+        }
+
+        String latticeKey = sb.toString();
+        T9Utils.recycleStringBuilder(sb);
+        return latticeKey;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof T9LatticeKey)) return false;
+
+        T9LatticeKey that = (T9LatticeKey) o;
+        return mSymbols.equals(that.mSymbols)
+                && Arrays.equals(mReadings, that.mReadings)
+                && Arrays.equals(mSlots, that.mSlots);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = mSymbols.hashCode();
+        result = 31 * result + Arrays.hashCode(mReadings);
+        result = 31 * result + Arrays.hashCode(mSlots);
+        return result;
+    }
+
+    static final class Builder {
+        private final StringBuilder mSymbols = new StringBuilder();
+        private final IntList mReadings = new IntList();
+        private final IntList mSlots = new IntList();
+
+        void startSlot() {
+            mSlots.add(mReadings.size());
+        }
+
+        /**
+         * 向当前槽位中添加读音, 重复的读音将被忽略.
+         */
+        void addReading(@Nonnull String reading) {
+            for (int i = mSlots.last(); i < mReadings.size(); i++) {
+                int start = mReadings.get(i);
+                int end = i + 1 < mReadings.size() ? mReadings.get(i + 1) : mSymbols.length();
+                if (end - start == reading.length() && regionEquals(start, reading)) {
+                    return;
+                }
+            }
+
+            mReadings.add(mSymbols.length());
+            mSymbols.append(reading);
+        }
+
+        private boolean regionEquals(int start, String reading) {
+            for (int i = 0; i < reading.length(); i++) {
+                if (mSymbols.charAt(start + i) != reading.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Nonnull
+        T9LatticeKey build() {
+            int[] readings = new int[mReadings.size() + 1];
+            for (int i = 0; i < mReadings.size(); i++) {
+                readings[i] = mReadings.get(i);
+            }
+            readings[mReadings.size()] = mSymbols.length();
+
+            int[] slots = new int[mSlots.size() + 1];
+            for (int i = 0; i < mSlots.size(); i++) {
+                slots[i] = mSlots.get(i);
+            }
+            slots[mSlots.size()] = mReadings.size();
+
+            return new T9LatticeKey(mSymbols.toString(), readings, slots);
+        }
+    }
+
+}
@@ -0,0 +1,164 @@
+package cn.tinkling.t9;
+
+import java.util.BitSet;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Lattice key 的匹配工具类
+ * <p>
+ * 匹配规则与 {@link T9Matcher} 相同: 每个字符可以只匹配首字母, 也可以匹配整个音节后继续匹配下一个字符,
+ * 最后一个匹配的字符可以只匹配音节的前缀. 不同的是所有读音组合被同时匹配, 并返回起始位置最靠前的匹配.
+ * 已经失败的(读音, constraint 位置)状态会被记录下来, 因此匹配的时间与 key 的大小和 constraint 的长度之积
+ * 成正比, 而与读音的组合数量无关.
+ *
+ * @see T9LatticeKey
+ */
+public final class T9LatticeMatcher {
+
+    private T9LatticeMatcher() {
+    }
+
+    /**
+     * T9 匹配
+     *
+     * @param latticeKey   lattice key.
+     * @param t9Constraint the constraint.
+     * @return the match info.
+     * @see T9MatchInfo
+     */
+    @Nonnull
+    public static T9MatchInfo matches(@Nullable T9LatticeKey latticeKey,
+                                      @Nullable String t9Constraint) {
+        T9MatchSpans spans = T9Utils.getReusableMatchSpans();
+        matches(latticeKey, t9Constraint, spans);
+        T9MatchInfo matchInfo = spans.toMatchInfo();
+        T9Utils.recycleMatchSpans(spans);
+        return matchInfo;
+    }
+
+    /**
+     * T9 匹配, 匹配结果写入到指定的 {@link T9MatchSpans} 中.
+     *
+     * @param latticeKey   lattice key.
+     * @param t9Constraint the constraint.
+     * @param spans        用于保存匹配结果, 匹配前会被清空.
+     * @return <code>true</code> - 已匹配, <code>false</code> - 其他.
+     */
+    public static boolean matches(@Nullable T9LatticeKey latticeKey,
+                                  @Nullable String t9Constraint,
+                                  @Nonnull T9MatchSpans spans) {
+        spans.reset();
+        if (latticeKey == null || T9Utils.isEmpty(t9Constraint))
+            return false;
+
+        final String symbols = latticeKey.mSymbols;
+        final int[] readings = latticeKey.mReadings;
+        final int[] slots = latticeKey.mSlots;
+        final int slotCount = slots.length - 1;
+        final char first = T9Utils.convertDigitToInitial(t9Constraint.charAt(0));
+
+        // [0, slotCount) 记录匹配的槽位, 其后记录已失败的状态
+        final BitSet bitSet = spans.mBitSet;
+        bitSet.clear();
+
+        for (int slot = 0; slot < slotCount; slot++) {
+            for (int reading = slots[slot]; reading < slots[slot + 1]; reading++) {
+                if (symbols.charAt(readings[reading]) == first &&
+                        matchesReading(latticeKey, slot, reading, t9Constraint, 0, bitSet)) {
+                    setMatchResult(spans, bitSet, slotCount);
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean matchesReading(T9LatticeKey latticeKey, int slot, int reading,
+                                          String t9Constraint, int cStart, BitSet bitSet) {
+        final int cLen = t9Constraint.length();
+        if (cStart + 1 == cLen) {
+            bitSet.set(slot);
+            return true;
+        }
+
+        final int slotCount = latticeKey.getSlotCount();
+        final int failedState = slotCount + reading * cLen + cStart;
+        if (bitSet.get(failedState)) {
+            return false;
+        }
+
+        // 只匹配首字母, 从下一个字符的首字母继续匹配
+        if (matchesNextInitial(latticeKey, slot, t9Constraint, cStart + 1, bitSet)) {
+            bitSet.set(slot);
+            return true;
+        }
+
+        final String symbols = latticeKey.mSymbols;
+        final int start = latticeKey.mReadings[reading];
+        final int spanLength = latticeKey.mReadings[reading + 1] - start;
+
+        if (cLen - cStart <= spanLength) {
+            // 匹配音节的前缀
+            if (symbols.regionMatches(start + 1, t9Constraint, cStart + 1, cLen - cStart - 1)) {
+                bitSet.set(slot);
+                return true;
+            }
+        } else if (symbols.regionMatches(start + 1, t9Constraint, cStart + 1, spanLength - 1)
+                && matchesNextInitial(latticeKey, slot, t9Constraint, cStart + spanLength,
+                bitSet)) {
+            // 匹配整个音节, 从下一个字符的首字母继续匹配
+            bitSet.set(slot);
+            return true;
+        }
+
+        bitSet.set(failedState);
+        return false;
+    }
+
+    /**
+     * 从指定槽位之后的第一个首字母开始匹配, 之间无法转换的字符(空白)会被跳过.
+     */
+    private static boolean matchesNextInitial(T9LatticeKey latticeKey, int slot,
+                                              String t9Constraint, int cStart, BitSet bitSet) {
+        final String symbols = latticeKey.mSymbols;
+        final int[] readings = latticeKey.mReadings;
+        final int[] slots = latticeKey.mSlots;
+        final int slotCount = slots.length - 1;
+        final char initial = T9Utils.convertDigitToInitial(t9Constraint.charAt(cStart));
+
+        for (int next = slot + 1; next < slotCount; next++) {
+            boolean hasSpace = false;
+            for (int reading = slots[next]; reading < slots[next + 1]; reading++) {
+                char c = symbols.charAt(readings[reading]);
+                if (c == ' ') {
+                    hasSpace = true;
+                } else if (c == initial &&
+                        matchesReading(latticeKey, next, reading, t9Constraint, cStart, bitSet)) {
+                    return true;
+                }
+            }
+
+            if (!hasSpace) {
+                break;
+            }
+        }
+
+        return false;
+    }
+
+    private static void setMatchResult(T9MatchSpans spans, BitSet bitSet, int slotCount) {
+        int start = bitSet.nextSetBit(0);
+        while (start >= 0 && start < slotCount) {
+            int end = bitSet.nextClearBit(start);
+            if (end > slotCount) {
+                end = slotCount;
+            }
+            spans.add(start, end - start);
+            start = bitSet.nextSetBit(end);
+        }
+    }
+
+}
@@ -0,0 +1,341 @@
+package cn.tinkling.t9;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * 可增量修改的 T9 索引
+ * <p>
+ * 读者通过 {@link #snapshot()} 获取不可变的快照进行搜索, 不需要加锁, 也不会被写者阻塞.
+ * 写者通过 {@link #edit()} 获取 {@link Editor}, 批量添加, 修改, 删除条目后调用 {@link Editor#commit()}
+ * 发布新的快照.
+ * <p>
+ * 条目按每 {@value #PAGE_SIZE} 个一页保存, 提交时只复制被修改的页以及页表, 因此发布的开销与修改的条目数量
+ * 而不是总的条目数量成正比. 条目ID在删除后不会被重新使用.
+ * <p>
+ * 该类是线程安全的.
+ */
+public final class T9LiveIndex {
+
+    static final int PAGE_SHIFT = 10;
+    static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private final AtomicReference<Snapshot> mSnapshot =
+            new AtomicReference<>(new Snapshot(this, new Page[0], 0, 0, 0L));
+
+    /**
+     * @return 当前的快照
+     */
+    @Nonnull
+    public Snapshot snapshot() {
+        return mSnapshot.get();
+    }
+
+    /**
+     * 基于当前的快照开始修改. 同一时间只能有一个 editor 成功提交.
+     *
+     * @return editor
+     */
+    @Nonnull
+    public Editor edit() {
+        return new Editor(mSnapshot.get());
+    }
+
+    private static final class Page {
+        final String[] mT9Keys;
+        final String[] mPhoneNumbers;
+        final boolean[] mPresent;
+
+        Page() {
+            mT9Keys = new String[PAGE_SIZE];
+            mPhoneNumbers = new String[PAGE_SIZE];
+            mPresent = new boolean[PAGE_SIZE];
+        }
+
+        Page(Page page) {
+            mT9Keys = page.mT9Keys.clone();
+            mPhoneNumbers = page.mPhoneNumbers.clone();
+            mPresent = page.mPresent.clone();
+        }
+    }
+
+    /**
+     * 不可变的快照, 可被多个线程同时搜索.
+     */
+    public static final class Snapshot {
+
+        /**
+         * 快照所属的索引
+         */
+        final T9LiveIndex mIndex;
+        private final Page[] mPages;
+        private final int mSize;
+        private final int mCount;
+        private final long mVersion;
+
+        Snapshot(T9LiveIndex index, Page[] pages, int size, int count, long version) {
+            mIndex = index;
+            mPages = pages;
+            mSize = size;
+            mCount = count;
+            mVersion = version;
+        }
+
+        /**
+         * @return 版本号, 每次提交递增.
+         */
+        public long version() {
+            return mVersion;
+        }
+
+        /**
+         * @return 条目ID的上限, 所有的条目ID都小于该值.
+         */
+        public int size() {
+            return mSize;
+        }
+
+        /**
+         * @return 未被删除的条目数量
+         */
+        public int count() {
+            return mCount;
+        }
+
+        /**
+         * @param id 条目ID
+         * @return <code>true</code> - 如果条目存在且未被删除.
+         */
+        public boolean contains(int id) {
+            return id >= 0 && id < mSize && mPages[id >>> PAGE_SHIFT].mPresent[id & PAGE_MASK];
+        }
+
+        /**
+         * @param id 条目ID
+         * @return T9 key, 条目不存在时返回<code>null</code>.
+         */
+        @Nullable
+        public String getT9Key(int id) {
+            return contains(id) ? mPages[id >>> PAGE_SHIFT].mT9Keys[id & PAGE_MASK] : null;
+        }
+
+        /**
+         * @param id 条目ID
+         * @return 电话号码, 条目不存在时返回<code>null</code>.
+         */
+        @Nullable
+        public String getPhoneNumber(int id) {
+            return contains(id) ? mPages[id >>> PAGE_SHIFT].mPhoneNumbers[id & PAGE_MASK] : null;
+        }
+
+        /**
+         * 搜索
+         *
+         * @param constraint the constraint.
+         * @return 按条目ID升序排列的匹配结果, 名称或电话号码匹配的条目都会被包含.
+         * @see T9Matcher#matches(String, String)
+         * @see T9Matcher#matchesNumber(String, String)
+         */
+        @Nonnull
+        public List<T9Hit> search(@Nullable String constraint) {
+            List<T9Hit> hits = new ArrayList<>();
+            if (T9Utils.isEmpty(constraint) || mCount == 0)
+                return hits;
+
+            T9MatchSpans nameSpans = T9Utils.getReusableMatchSpans();
+            T9MatchSpans numberSpans = T9Utils.getReusableMatchSpans();
+            try {
+                for (int p = 0; p < mPages.length; p++) {
+                    final Page page = mPages[p];
+                    final int end = Math.min(PAGE_SIZE, mSize - (p << PAGE_SHIFT));
+                    for (int i = 0; i < end; i++) {
+                        if (!page.mPresent[i])
+                            continue;
+
+                        match((p << PAGE_SHIFT) | i, page.mT9Keys[i], page.mPhoneNumbers[i],
+                                constraint, nameSpans, numberSpans, hits);
+                    }
+                }
+            } finally {
+                T9Utils.recycleMatchSpans(nameSpans);
+                T9Utils.recycleMatchSpans(numberSpans);
+            }
+            return hits;
+        }
+
+        /**
+         * 只在之前的匹配结果中搜索
+         *
+         * @param survivors  该快照中 constraint 的某个前缀的搜索结果
+         * @param constraint the constraint, 不能为空.
+         * @return 按条目ID升序排列的匹配结果
+         */
+        @Nonnull
+        List<T9Hit> refine(@Nonnull List<T9Hit> survivors, @Nonnull String constraint) {
+            List<T9Hit> hits = new ArrayList<>();
+            T9MatchSpans nameSpans = T9Utils.getReusableMatchSpans();
+            T9MatchSpans numberSpans = T9Utils.getReusableMatchSpans();
+            try {
+                for (T9Hit survivor : survivors) {
+                    final int id = survivor.id();
+                    final Page page = mPages[id >>> PAGE_SHIFT];
+                    match(id, page.mT9Keys[id & PAGE_MASK], page.mPhoneNumbers[id & PAGE_MASK],
+                            constraint, nameSpans, numberSpans, hits);
+                }
+            } finally {
+                T9Utils.recycleMatchSpans(nameSpans);
+                T9Utils.recycleMatchSpans(numberSpans);
+            }
+            return hits;
+        }
+
+        private static void match(int id, String t9Key, String phoneNumber, String constraint,
+                                  T9MatchSpans nameSpans, T9MatchSpans numberSpans,
+                                  List<T9Hit> hits) {
+            boolean nameFound = T9Matcher.matches(t9Key, constraint, nameSpans);
+            boolean numberFound = T9Matcher.matchesNumber(phoneNumber, constraint, numberSpans);
+            if (nameFound || numberFound) {
+                hits.add(new T9Hit(id, nameSpans.toMatchInfo(),
+                        numberFound ? numberSpans.toMatchInfo() : new T9MatchInfo()));
+            }
+        }
+    }
+
+    /**
+     * 批量修改索引, 修改在 {@link #commit()} 之后才对读者可见. 该类不是线程安全的.
+     */
+    public final class Editor {
+
+        private final Snapshot mBase;
+        private Page[] mPages;
+        private boolean[] mOwned;
+        private int mSize;
+        private int mCount;
+        private boolean mCommitted;
+
+        Editor(Snapshot base) {
+            mBase = base;
+            mPages = base.mPages;
+            mSize = base.mSize;
+            mCount = base.mCount;
+        }
+
+        /**
+         * 添加条目
+         *
+         * @param t9Key       T9 key
+         * @param phoneNumber 电话号码
+         * @return 条目ID
+         */
+        public int add(@Nullable String t9Key, @Nullable String phoneNumber) {
+            checkNotCommitted();
+
+            final int id = mSize;
+            Page page = getWritablePage(id >>> PAGE_SHIFT);
+            page.mT9Keys[id & PAGE_MASK] = t9Key;
+            page.mPhoneNumbers[id & PAGE_MASK] = phoneNumber;
+            page.mPresent[id & PAGE_MASK] = true;
+            mSize++;
+            mCount++;
+            return id;
+        }
+
+        /**
+         * 修改条目
+         *
+         * @param id          条目ID
+         * @param t9Key       T9 key
+         * @param phoneNumber 电话号码
+         * @throws IllegalArgumentException 如果条目不存在或已被删除.
+         */
+        public void update(int id, @Nullable String t9Key, @Nullable String phoneNumber) {
+            checkNotCommitted();
+            checkPresent(id);
+
+            Page page = getWritablePage(id >>> PAGE_SHIFT);
+            page.mT9Keys[id & PAGE_MASK] = t9Key;
+            page.mPhoneNumbers[id & PAGE_MASK] = phoneNumber;
+        }
+
+        /**
+         * 删除条目
+         *
+         * @param id 条目ID
+         * @throws IllegalArgumentException 如果条目不存在或已被删除.
+         */
+        public void remove(int id) {
+            checkNotCommitted();
+            checkPresent(id);
+
+            Page page = getWritablePage(id >>> PAGE_SHIFT);
+            page.mT9Keys[id & PAGE_MASK] = null;
+            page.mPhoneNumbers[id & PAGE_MASK] = null;
+            page.mPresent[id & PAGE_MASK] = false;
+            mCount--;
+        }
+
+        /**
+         * 发布新的快照
+         *
+         * @return 新的快照
+         * @throws ConcurrentModificationException 如果在此期间有其他 editor 已经提交.
+         */
+        @Nonnull
+        public Snapshot commit() {
+            checkNotCommitted();
+            mCommitted = true;
+
+            if (mOwned == null)
+                return mBase;
+
+            Snapshot snapshot = new Snapshot(T9LiveIndex.this, mPages, mSize, mCount,
+                    mBase.mVersion + 1);
+            if (!mSnapshot.compareAndSet(mBase, snapshot)) {
+                throw new ConcurrentModificationException("The index was modified by another editor");
+            }
+            return snapshot;
+        }
+
+        private Page getWritablePage(int index) {
+            if (mOwned == null) {
+                // 第一次修改, 复制页表
+                mPages = mPages.clone();
+                mOwned = new boolean[mPages.length];
+            }
+
+            if (index == mPages.length) {
+                Page[] pages = new Page[index + 1];
+                boolean[] owned = new boolean[index + 1];
+                System.arraycopy(mPages, 0, pages, 0, index);
+                System.arraycopy(mOwned, 0, owned, 0, index);
+                mPages = pages;
+                mOwned = owned;
+                mPages[index] = new Page();
+                mOwned[index] = true;
+            } else if (!mOwned[index]) {
+                mPages[index] = new Page(mPages[index]);
+                mOwned[index] = true;
+            }
+            return mPages[index];
+        }
+
+        private void checkPresent(int id) {
+            if (id < 0 || id >= mSize || !mPages[id >>> PAGE_SHIFT].mPresent[id & PAGE_MASK]) {
+                throw new IllegalArgumentException("No entry with id " + id);
+            }
+        }
+
+        private void checkNotCommitted() {
+            if (mCommitted) {
+                throw new IllegalStateException("Already committed");
+            }
+        }
+    }
+
+}
@@ -1,13 +1,11 @@
 package cn.tinkling.t9;
 
-import android.os.Parcel;
-import android.os.Parcelable;
-import android.support.annotation.Nullable;
+import javax.annotation.Nullable;
 
 /**
  * T9 匹配信息
  */
-public final class T9MatchInfo implements Parcelable {
+public final class T9MatchInfo {
 
     private boolean mMatchFound;
     private int mMatchStart;
@@ -15,42 +13,12 @@ public final class T9MatchInfo implements Parcelable {
 
     private T9MatchInfo mNext;
 
-    public static final Parcelable.Creator<T9MatchInfo> CREATOR = new Parcelable.Creator<T9MatchInfo>() {
-        public T9MatchInfo createFromParcel(Parcel source) {
-            return new T9MatchInfo(source);
-        }
-
-        public T9MatchInfo[] newArray(int size) {
-            return new T9MatchInfo[size];
-        }
-    };
-
     T9MatchInfo() {
         this.mMatchFound = false;
         this.mMatchStart = -1;
         this.mMatchLength = 0;
     }
 
-    T9MatchInfo(Parcel in) {
-        mMatchFound = in.readByte() != 0;
-        mMatchStart = in.readInt();
-        mMatchLength = in.readInt();
-        mNext = in.readParcelable(T9MatchInfo.class.getClassLoader());
-    }
-
-    @Override
-    public int describeContents() {
-        return 0;
-    }
-
-    @Override
-    public void writeToParcel(Parcel dest, int flags) {
-        dest.writeByte(mMatchFound ? (byte) 1 : (byte) 0);
-        dest.writeInt(mMatchStart);
-        dest.writeInt(mMatchLength);
-        dest.writeParcelable(mNext, flags);
-    }
-
     void set(int matchStart, int matchLength) {
         if ((matchStart < 0 && matchLength > 0) || (matchStart >= 0 && matchLength <= 0)) {
             throw new IndexOutOfBoundsException(
@@ -0,0 +1,134 @@
+package cn.tinkling.t9;
+
+import java.util.BitSet;
+
+import javax.annotation.Nonnull;
+
+/**
+ * 可复用的匹配结果
+ * <p>
+ * 由调用者持有, 在多次匹配之间复用. 匹配过程中所需的临时缓冲也由它持有,
+ * 因此使用 {@link T9Matcher#matches(String, String, T9MatchSpans)} 等方法匹配时不会分配新的对象.
+ * <p>
+ * 非线程安全.
+ */
+public final class T9MatchSpans {
+
+    private int[] mSpans;
+    private int mCount;
+
+    final BitSet mBitSet = new BitSet();
+    final long[] mMasks = new long[T9BitMatcher.SCRATCH_SIZE];
+    int[] mMemo = new int[0];
+
+    public T9MatchSpans() {
+        this(4);
+    }
+
+    /**
+     * @param capacity 初始可容纳的匹配段数量
+     */
+    public T9MatchSpans(int capacity) {
+        mSpans = new int[Math.max(capacity, 1) * 2];
+    }
+
+    /**
+     * 清除匹配结果
+     */
+    public void reset() {
+        mCount = 0;
+    }
+
+    void add(int start, int length) {
+        if (start < 0 || length <= 0) {
+            throw new IndexOutOfBoundsException(
+                    "INVALID MATCH OFFSETS: matchStart=" + start + ", matchLength=" + length);
+        }
+
+        final int index = mCount * 2;
+        if (index == mSpans.length) {
+            int[] spans = new int[index * 2];
+            System.arraycopy(mSpans, 0, spans, 0, index);
+            mSpans = spans;
+        }
+        mSpans[index] = start;
+        mSpans[index + 1] = length;
+        mCount++;
+    }
+
+    /**
+     * @return <code>true</code> - 已匹配, <code>false</code> - 其他.
+     */
+    public boolean found() {
+        return mCount > 0;
+    }
+
+    /**
+     * @return 匹配段的数量
+     */
+    public int count() {
+        return mCount;
+    }
+
+    /**
+     * @param index 匹配段的索引
+     * @return 匹配段的起始位置
+     */
+    public int start(int index) {
+        checkIndex(index);
+        return mSpans[index * 2];
+    }
+
+    /**
+     * @param index 匹配段的索引
+     * @return 匹配段的长度
+     */
+    public int length(int index) {
+        checkIndex(index);
+        return mSpans[index * 2 + 1];
+    }
+
+    /**
+     * @return 所有匹配段的长度之和
+     */
+    public int totalLength() {
+        int length = 0;
+        for (int i = 0; i < mCount; i++) {
+            length += mSpans[i * 2 + 1];
+        }
+        return length;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= mCount) {
+            throw new IndexOutOfBoundsException("index=" + index + ", count=" + mCount);
+        }
+    }
+
+    /**
+     * @return 与当前结果等价的匹配信息
+     */
+    @Nonnull
+    public T9MatchInfo toMatchInfo() {
+        T9MatchInfo head = new T9MatchInfo();
+        T9MatchInfo matchInfo = head;
+        for (int i = 0; i < mCount; i++) {
+            matchInfo = T9Matcher.checkMatchInfo(matchInfo);
+            matchInfo.set(mSpans[i * 2], mSpans[i * 2 + 1]);
+        }
+        return head;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("T9MatchSpans{");
+        for (int i = 0; i < mCount; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append('[').append(mSpans[i * 2]).append(", ").append(mSpans[i * 2 + 1]).append(')');
+        }
+        return sb.append('}').toString();
+    }
+
+}
@@ -0,0 +1,576 @@
+package cn.tinkling.t9;
+
+import java.util.BitSet;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * T9 匹配工具类
+ */
+public final class T9Matcher {
+
+    private T9Matcher() {
+    }
+
+    /**
+     * T9 匹配
+     *
+     * @param t9Key        t9 key.
+     * @param t9Constraint the constraint.
+     * @return the match info.
+     * @see T9MatchInfo
+     */
+    @Nonnull
+    public static T9MatchInfo matches(@Nullable String t9Key, char t9Constraint) {
+        T9MatchInfo matchInfo = new T9MatchInfo();
+
+        if (!T9Utils.isEmpty(t9Key)) {
+            int start = matchesInitial(t9Key, t9Constraint);
+            if (start >= 0) {
+                matchInfo.set(start, 1);
+            }
+        }
+        return matchInfo;
+    }
+
+    /**
+     * T9 匹配, 匹配结果写入到指定的 {@link T9MatchSpans} 中, 不会分配新的对象.
+     *
+     * @param t9Key        t9 key.
+     * @param t9Constraint the constraint.
+     * @param spans        用于保存匹配结果, 匹配前会被清空.
+     * @return <code>true</code> - 已匹配, <code>false</code> - 其他.
+     * @see #matches(String, char)
+     */
+    public static boolean matches(@Nullable String t9Key, char t9Constraint,
+                                  @Nonnull T9MatchSpans spans) {
+        spans.reset();
+
+        if (!T9Utils.isEmpty(t9Key)) {
+            int start = matchesInitial(t9Key, t9Constraint);
+            if (start >= 0) {
+                spans.add(start, 1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int matchesInitial(String t9Key, char t9Constraint) {
+        final T9MetricsListener listener = T9Utils.sMetricsListener;
+        if (listener == null)
+            return findInitial(t9Key, t9Constraint);
+
+        final long startTime = System.nanoTime();
+        final int start = findInitial(t9Key, t9Constraint);
+        listener.onMatch(1, start >= 0, System.nanoTime() - startTime);
+        return start;
+    }
+
+    private static int findInitial(String t9Key, char t9Constraint) {
+        char initial = T9Utils.convertDigitToInitial(t9Constraint);
+        int index = t9Key.indexOf(initial);
+        if (index >= 0) {
+            int begin = t9Key.lastIndexOf(T9Utils.T9_KEYS_DIVIDER, index - 1) + 1;
+            return T9Utils.getWordsCount(t9Key, begin, index);
+        }
+        return -1;
+    }
+
+    /**
+     * T9 匹配
+     *
+     * @param t9Key        t9 key.
+     * @param t9Constraint the constraint.
+     * @return the match info.
+     * @see T9MatchInfo
+     */
+    @Nonnull
+    public static T9MatchInfo matches(@Nullable String t9Key, @Nullable String t9Constraint) {
+        if (T9Utils.isEmpty(t9Key) || T9Utils.isEmpty(t9Constraint))
+            return new T9MatchInfo();
+
+        if (t9Constraint.length() == 1) {
+            return matches(t9Key, t9Constraint.charAt(0));
+        }
+
+        T9MatchSpans spans = T9Utils.getReusableMatchSpans();
+        matchesName(t9Key, t9Constraint, spans);
+        T9MatchInfo matchInfo = spans.toMatchInfo();
+        T9Utils.recycleMatchSpans(spans);
+        return matchInfo;
+    }
+
+    /**
+     * T9 匹配, 匹配结果写入到指定的 {@link T9MatchSpans} 中, 不会分配新的对象.
+     *
+     * @param t9Key        t9 key.
+     * @param t9Constraint the constraint.
+     * @param spans        用于保存匹配结果, 匹配前会被清空.
+     * @return <code>true</code> - 已匹配, <code>false</code> - 其他.
+     * @see #matches(String, String)
+     */
+    public static boolean matches(@Nullable String t9Key, @Nullable String t9Constraint,
+                                  @Nonnull T9MatchSpans spans) {
+        if (T9Utils.isEmpty(t9Key) || T9Utils.isEmpty(t9Constraint)) {
+            spans.reset();
+            return false;
+        }
+
+        if (t9Constraint.length() == 1) {
+            return matches(t9Key, t9Constraint.charAt(0), spans);
+        }
+
+        return matchesName(t9Key, t9Constraint, spans);
+    }
+
+    /**
+     * T9 匹配, 结果与 {@link #matches(String, String)} 相同.
+     *
+     * @param keyTrie      前缀树形式的 t9 key.
+     * @param t9Constraint the constraint.
+     * @return the match info.
+     * @see T9KeyTrie
+     */
+    @Nonnull
+    public static T9MatchInfo matches(@Nullable T9KeyTrie keyTrie, @Nullable String t9Constraint) {
+        if (keyTrie == null)
+            return new T9MatchInfo();
+
+        T9MatchSpans spans = T9Utils.getReusableMatchSpans();
+        matches(keyTrie, t9Constraint, spans);
+        T9MatchInfo matchInfo = spans.toMatchInfo();
+        T9Utils.recycleMatchSpans(spans);
+        return matchInfo;
+    }
+
+    /**
+     * T9 匹配, 匹配结果写入到指定的 {@link T9MatchSpans} 中, 结果与
+     * {@link #matches(String, String, T9MatchSpans)} 相同.
+     * <p>
+     * 各个选项共有的前缀只匹配一次, 找到第一个可以匹配的选项之后只在该选项上重新匹配一次以得到匹配结果.
+     *
+     * @param keyTrie      前缀树形式的 t9 key.
+     * @param t9Constraint the constraint.
+     * @param spans        用于保存匹配结果, 匹配前会被清空.
+     * @return <code>true</code> - 已匹配, <code>false</code> - 其他.
+     * @see T9KeyTrie
+     */
+    public static boolean matches(@Nullable T9KeyTrie keyTrie, @Nullable String t9Constraint,
+                                  @Nonnull T9MatchSpans spans) {
+        if (keyTrie == null || T9Utils.isEmpty(t9Constraint)) {
+            spans.reset();
+            return false;
+        }
+
+        if (t9Constraint.length() == 1 || !keyTrie.isCompiled()
+                || !T9Utils.isValidT9Key(t9Constraint)) {
+            return matches(keyTrie.getT9Key(), t9Constraint, spans);
+        }
+
+        final T9MetricsListener listener = T9Utils.sMetricsListener;
+        if (listener == null)
+            return matchesTrie(keyTrie, t9Constraint, spans);
+
+        final long startTime = System.nanoTime();
+        final boolean found = matchesTrie(keyTrie, t9Constraint, spans);
+        listener.onMatch(t9Constraint.length(), found, System.nanoTime() - startTime);
+        return found;
+    }
+
+    /**
+     * 批量匹配, 结果与对每个 key 调用 {@link #matches(String, String, T9MatchSpans)} 相同.
+     * <p>
+     * constraint 只预处理一次, 并且一次扫描整列查找首字符的声母, 不含该声母的条目不会被逐个检查.
+     * 匹配过程中不会分配新的对象.
+     * <p>
+     * 设置了 {@link T9MetricsListener} 时, 每次批量匹配回调一次
+     * {@link T9MetricsListener#onBatchMatch(int, int, int, long)}, 而不是每个条目回调一次.
+     *
+     * @param keys         key 列
+     * @param t9Constraint the constraint.
+     * @param sink         按条目ID升序接收匹配的条目
+     * @return 匹配的条目数量
+     */
+    public static int matchAll(@Nonnull T9KeyColumn keys, @Nullable String t9Constraint,
+                               @Nonnull T9HitSink sink) {
+        if (T9Utils.isEmpty(t9Constraint))
+            return 0;
+
+        final T9MetricsListener listener = T9Utils.sMetricsListener;
+        if (listener == null)
+            return matchColumn(keys, t9Constraint, sink);
+
+        final long startTime = System.nanoTime();
+        final int hitCount = matchColumn(keys, t9Constraint, sink);
+        listener.onBatchMatch(t9Constraint.length(), keys.size(), hitCount,
+                System.nanoTime() - startTime);
+        return hitCount;
+    }
+
+    private static int matchColumn(T9KeyColumn keys, String t9Constraint, T9HitSink sink) {
+        final String t9Key = keys.mKeys;
+        final int[] offsets = keys.mOffsets;
+        final int length = keys.length();
+        final boolean initialOnly = t9Constraint.length() == 1;
+        final boolean bitParallel = T9Utils.isValidT9Key(t9Constraint);
+        final char first = T9Utils.convertDigitToInitial(t9Constraint.charAt(0));
+
+        T9MatchSpans spans = T9Utils.getReusableMatchSpans();
+        try {
+            int hitCount = 0;
+            int id = 0;
+            int start = 0;
+            while (start < length) {
+                final int index = t9Key.indexOf(first, start);
+                if (index < 0 || index >= length)
+                    break;
+
+                while (offsets[id + 1] <= index) {
+                    id++;
+                }
+
+                final int begin = t9Key.lastIndexOf(T9Utils.T9_KEYS_DIVIDER, index) + 1;
+                int end = t9Key.indexOf(T9Utils.T9_KEYS_DIVIDER, index);
+                if (end < 0)
+                    end = length;
+
+                spans.reset();
+                final boolean found;
+                if (initialOnly) {
+                    spans.add(T9Utils.getWordsCount(t9Key, begin, index), 1);
+                    found = true;
+                } else {
+                    found = matchesAlternative(t9Key, begin, end, t9Constraint, bitParallel, spans);
+                }
+
+                if (found) {
+                    sink.onHit(id, spans);
+                    hitCount++;
+                    // 跳过该条目剩余的选项
+                    start = offsets[id + 1];
+                } else {
+                    start = end + 1;
+                }
+            }
+            return hitCount;
+        } finally {
+            T9Utils.recycleMatchSpans(spans);
+        }
+    }
+
+    private static boolean matchesTrie(T9KeyTrie keyTrie, String t9Constraint, T9MatchSpans spans) {
+        spans.reset();
+        final int alternative = keyTrie.findFirstAlternative(t9Constraint, spans);
+        if (alternative < 0)
+            return false;
+
+        return matchesAlternative(keyTrie.getT9Key(), keyTrie.getAlternativeStart(alternative),
+                keyTrie.getAlternativeEnd(alternative), t9Constraint, true, spans);
+    }
+
+    private static boolean matchesName(String t9Key, String t9Constraint, T9MatchSpans spans) {
+        final T9MetricsListener listener = T9Utils.sMetricsListener;
+        if (listener == null)
+            return matchesAlternatives(t9Key, t9Constraint, spans);
+
+        final long startTime = System.nanoTime();
+        final boolean found = matchesAlternatives(t9Key, t9Constraint, spans);
+        listener.onMatch(t9Constraint.length(), found, System.nanoTime() - startTime);
+        return found;
+    }
+
+    private static boolean matchesAlternatives(String t9Key, String t9Constraint,
+                                               T9MatchSpans spans) {
+        spans.reset();
+
+        // 位并行匹配要求 constraint 只含有有效的T9字符, 否则全部使用回溯匹配
+        final boolean bitParallel = T9Utils.isValidT9Key(t9Constraint);
+        final char first = T9Utils.convertDigitToInitial(t9Constraint.charAt(0));
+
+        int start = 0;
+        int end;
+        do {
+            // 跳过不含首字符声母的选项
+            final int index = t9Key.indexOf(first, start);
+            if (index < 0)
+                return false;
+
+            start = t9Key.lastIndexOf(T9Utils.T9_KEYS_DIVIDER, index) + 1;
+            end = t9Key.indexOf(T9Utils.T9_KEYS_DIVIDER, index);
+            if (end < 0)
+                end = t9Key.length();
+
+            if (start < end && matchesAlternative(t9Key, start, end, t9Constraint, bitParallel, spans))
+                return true;
+
+            start = end + 1;
+        } while (end < t9Key.length());
+
+        return false;
+    }
+
+    /**
+     * 匹配 key 中的一个选项, 匹配结果中的位置相对于选项的起始位置.
+     */
+    static boolean matchesAlternative(String t9Key, int start, int end, String t9Constraint,
+                                      boolean bitParallel, T9MatchSpans spans) {
+        int result = bitParallel
+                ? T9BitMatcher.matches(t9Key, start, end, t9Constraint, spans)
+                : T9BitMatcher.UNSUPPORTED;
+        if (result == T9BitMatcher.UNSUPPORTED
+                && matchesName(t9Key, start, end, t9Constraint, spans.mBitSet)) {
+            setMatchResult(t9Key, spans, spans.mBitSet, start, end);
+            result = T9BitMatcher.MATCHED;
+        }
+        return result == T9BitMatcher.MATCHED;
+    }
+
+    private static int matchesName(String t9Key, int begin, int end, int start, String t9Constraint,
+                                   int cStart, BitSet bitSet) {
+        int nextInitialCharIndex = start + 1;
+
+        do {
+            if (nextInitialCharIndex >= end ||
+                    T9Utils.isInitial(t9Key.charAt(nextInitialCharIndex))) {
+                if (nextInitialCharIndex == end) {
+                    // 不能越过选项的末尾匹配下一个选项
+                    if (start + (t9Constraint.length() - cStart) <= end
+                            && t9Key.regionMatches(start + 1, t9Constraint, cStart + 1,
+                            -1 + (t9Constraint.length() - cStart))) {
+                        bitSet.set(start - begin,
+                                (start - begin) + t9Constraint.length() - cStart);
+                        return 1;
+                    } else {
+                        return 0;
+                    }
+                }
+                break;
+            }
+            nextInitialCharIndex++;
+        } while (true);
+
+        if (T9Utils.convertDigitToInitial(t9Constraint.charAt(cStart + 1)) ==
+                t9Key.charAt(nextInitialCharIndex)) {
+            if (t9Constraint.length() == cStart + 2) {
+                bitSet.set(start - begin);
+                bitSet.set(nextInitialCharIndex - begin);
+                return 2;
+            }
+
+            int matchCount = matchesName(t9Key, begin, end, nextInitialCharIndex, t9Constraint,
+                    cStart + 1, bitSet);
+            if (matchCount > 0) {
+                bitSet.set(start - begin);
+                return matchCount + 1;
+            }
+        }
+
+        int spanLength = nextInitialCharIndex - start;
+        for (int i = nextInitialCharIndex - 1; t9Key.charAt(i) == ' '; ) {
+            i--;
+            spanLength--;
+        }
+
+        if (t9Constraint.length() - cStart <= spanLength) {
+            if (t9Key.regionMatches(start + 1, t9Constraint, cStart + 1,
+                    -1 + (t9Constraint.length() - cStart))) {
+                bitSet.set(start - begin, ((start - begin) + t9Constraint.length()) - cStart);
+                return 1;
+            } else {
+                return 0;
+            }
+        }
+
+        if (T9Utils.convertDigitToInitial(t9Constraint.charAt(cStart + spanLength)) ==
+                t9Key.charAt(nextInitialCharIndex)
+                && t9Key.regionMatches(start + 1, t9Constraint, cStart + 1, spanLength - 1)) {
+            if (1 + (cStart + spanLength) == t9Constraint.length()) {
+                bitSet.set(start - begin, 1 + (nextInitialCharIndex - begin));
+                return 2;
+            }
+
+            int matchCount = matchesName(t9Key, begin, end, nextInitialCharIndex, t9Constraint,
+                    cStart + spanLength, bitSet);
+            if (matchCount > 0) {
+                bitSet.set(start - begin, nextInitialCharIndex - begin);
+                return matchCount + 1;
+            }
+        }
+
+        return 0;
+    }
+
+    private static boolean matchesName(@Nonnull String t9Key,
+                                       int start,
+                                       int end,
+                                       @Nonnull String t9Constraint,
+                                       @Nonnull BitSet bitSet) {
+        if (end - start < t9Constraint.length())
+            return false;
+
+        final int maxLength = 1 + (end - t9Constraint.length());
+        final char first = T9Utils.convertDigitToInitial(t9Constraint.charAt(0));
+        int startIndex = start;
+
+        while (true) {
+
+            if (startIndex >= maxLength) {
+                break;
+            }
+
+            int index = t9Key.indexOf(first, startIndex);
+            if (index < 0 || index >= maxLength) {
+                break;
+            }
+
+            bitSet.clear();
+
+            int matchCount = matchesName(t9Key, start, end, index, t9Constraint, 0, bitSet);
+            if (matchCount > 0) {
+                return true;
+            }
+
+            startIndex = index + 1;
+        }
+
+        return false;
+    }
+
+    private static void setMatchResult(String t9Key, T9MatchSpans spans, BitSet bitSet, int begin,
+                                       int end) {
+        int wordCount = 0;
+        int start = -1;
+
+        for (int i = begin; i < end; i++) {
+            char c = t9Key.charAt(i);
+            if (i == begin || c == ' ' || T9Utils.isInitial(c)) {
+                if (bitSet.get(i - begin) && c != ' ') {
+                    if (start == -1) {
+                        start = wordCount;
+                    }
+                } else if (start > -1) {
+                    spans.add(start, wordCount - start);
+                    start = -1;
+                }
+
+                wordCount++;
+            }
+        }
+
+        if (start > -1) {
+            spans.add(start, wordCount - start);
+        }
+    }
+
+    @Nonnull
+    static T9MatchInfo checkMatchInfo(@Nonnull T9MatchInfo matchInfo) {
+        if (matchInfo.found()) {
+            T9MatchInfo info = new T9MatchInfo();
+            matchInfo.setNext(info);
+            matchInfo = info;
+        }
+        return matchInfo;
+    }
+
+    /**
+     * 电话号码匹配
+     *
+     * @param phoneNumber 电话号码
+     * @param constraint  the constraint
+     * @return the match info.
+     * @see T9MatchInfo
+     */
+    @Nonnull
+    public static T9MatchInfo matchesNumber(@Nullable String phoneNumber,
+                                            @Nullable String constraint) {
+        T9MatchInfo matchInfo = new T9MatchInfo();
+        if (T9Utils.isEmpty(phoneNumber) || T9Utils.isEmpty(constraint))
+            return matchInfo;
+
+        int index = phoneNumber.indexOf(constraint);
+        if (index >= 0) {
+            matchInfo.set(index, constraint.length());
+        }
+
+        return matchInfo;
+    }
+
+    /**
+     * 电话号码匹配, 匹配结果写入到指定的 {@link T9MatchSpans} 中, 不会分配新的对象.
+     *
+     * @param phoneNumber 电话号码
+     * @param constraint  the constraint
+     * @param spans       用于保存匹配结果, 匹配前会被清空.
+     * @return <code>true</code> - 已匹配, <code>false</code> - 其他.
+     * @see #matchesNumber(String, String)
+     */
+    public static boolean matchesNumber(@Nullable String phoneNumber, @Nullable String constraint,
+                                        @Nonnull T9MatchSpans spans) {
+        spans.reset();
+        if (T9Utils.isEmpty(phoneNumber) || T9Utils.isEmpty(constraint))
+            return false;
+
+        int index = phoneNumber.indexOf(constraint);
+        if (index >= 0) {
+            spans.add(index, constraint.length());
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * 电话号码匹配, 在规范化的号码中匹配, 匹配位置为原号码中的位置.
+     * 匹配的号码中间含有格式字符时, 格式字符也包含在匹配的长度中.
+     *
+     * @param phoneNumber 规范化的电话号码
+     * @param constraint  the constraint
+     * @return 匹配信息
+     * @see T9PhoneNumber#normalize(String)
+     */
+    @Nonnull
+    public static T9MatchInfo matchesNumber(@Nullable T9PhoneNumber phoneNumber,
+                                            @Nullable String constraint) {
+        T9MatchInfo matchInfo = new T9MatchInfo();
+        if (phoneNumber == null || T9Utils.isEmpty(constraint))
+            return matchInfo;
+
+        int index = phoneNumber.normalized().indexOf(constraint);
+        if (index >= 0) {
+            int start = phoneNumber.toOriginalIndex(index);
+            int end = phoneNumber.toOriginalIndex(index + constraint.length() - 1) + 1;
+            matchInfo.set(start, end - start);
+        }
+
+        return matchInfo;
+    }
+
+    /**
+     * 电话号码匹配, 匹配结果写入到指定的 {@link T9MatchSpans} 中, 不会分配新的对象.
+     *
+     * @param phoneNumber 规范化的电话号码
+     * @param constraint  the constraint
+     * @param spans       用于保存匹配结果, 匹配前会被清空.
+     * @return <code>true</code> - 已匹配, <code>false</code> - 其他.
+     * @see #matchesNumber(T9PhoneNumber, String)
+     */
+    public static boolean matchesNumber(@Nullable T9PhoneNumber phoneNumber, @Nullable String constraint,
+                                        @Nonnull T9MatchSpans spans) {
+        spans.reset();
+        if (phoneNumber == null || T9Utils.isEmpty(constraint))
+            return false;
+
+        int index = phoneNumber.normalized().indexOf(constraint);
+        if (index >= 0) {
+            int start = phoneNumber.toOriginalIndex(index);
+            int end = phoneNumber.toOriginalIndex(index + constraint.length() - 1) + 1;
+            spans.add(start, end - start);
+            return true;
+        }
+
+        return false;
+    }
+
+}
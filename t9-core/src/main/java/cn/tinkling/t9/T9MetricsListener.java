@@ -0,0 +1,75 @@
+package cn.tinkling.t9;
+
+/**
+ * 性能指标监听器
+ * <p>
+ * 通过 {@link T9Utils#setMetricsListener(T9MetricsListener)} 设置后, 名称匹配, 生成 t9 key
+ * 以及获取内部缓冲时都会回调该监听器, 电话号码匹配不会回调. 默认没有监听器, 此时只有一次字段读取的开销.
+ * <p>
+ * 回调会在执行匹配或生成 key 的线程中同步调用, 实现必须是线程安全的, 应当尽快返回并且不抛出异常.
+ *
+ * @see T9MetricsRecorder
+ */
+public interface T9MetricsListener {
+
+    /**
+     * 缓冲池: StringBuilder
+     */
+    int POOL_STRING_BUILDER = 0;
+    /**
+     * 缓冲池: BitSet
+     */
+    int POOL_BIT_SET = 1;
+    /**
+     * 缓冲池: {@link T9MatchSpans}
+     */
+    int POOL_MATCH_SPANS = 2;
+    /**
+     * 缓冲池: 生成 t9 key 所需的缓冲
+     */
+    int POOL_KEY_BUFFERS = 3;
+    /**
+     * 缓冲池的数量
+     */
+    int POOL_COUNT = 4;
+
+    /**
+     * 完成一次名称匹配
+     *
+     * @param constraintLength constraint 的长度
+     * @param found            是否匹配
+     * @param durationNanos    耗时(纳秒)
+     * @see T9Matcher#matches(String, String)
+     */
+    void onMatch(int constraintLength, boolean found, long durationNanos);
+
+    /**
+     * 完成一次批量名称匹配, 批量匹配中的每个条目不会再回调 {@link #onMatch(int, boolean, long)}.
+     *
+     * @param constraintLength constraint 的长度
+     * @param entryCount       参与匹配的条目数量
+     * @param hitCount         匹配的条目数量
+     * @param durationNanos    耗时(纳秒), 包括接收匹配结果的耗时.
+     * @see T9Matcher#matchAll(T9KeyColumn, String, T9HitSink)
+     */
+    void onBatchMatch(int constraintLength, int entryCount, int hitCount, long durationNanos);
+
+    /**
+     * 生成了一个 t9 key
+     *
+     * @param nameLength       名称的长度
+     * @param alternativeCount key 中的选项数量, 即多音字读音组合的数量.
+     * @param durationNanos    耗时(纳秒)
+     * @see T9Utils#buildT9Key(String, PinyinProvider)
+     */
+    void onKeyBuilt(int nameLength, int alternativeCount, long durationNanos);
+
+    /**
+     * 从内部缓冲池获取了一个缓冲
+     *
+     * @param pool 缓冲池, <code>POOL_*</code> 之一.
+     * @param hit  <code>true</code> - 复用了池中的缓冲, <code>false</code> - 新建了缓冲.
+     */
+    void onPoolAcquire(int pool, boolean hit);
+
+}
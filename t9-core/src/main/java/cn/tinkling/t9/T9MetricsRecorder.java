@@ -0,0 +1,182 @@
+package cn.tinkling.t9;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.annotation.Nonnull;
+
+/**
+ * 记录性能指标的 {@link T9MetricsListener}
+ * <p>
+ * 按 constraint 的长度分别记录名称匹配和批量名称匹配的耗时, 同时记录生成 t9 key 的耗时, key 中的选项数量,
+ * 以及每个内部缓冲池的命中率. 记录时不加锁也不分配内存.
+ * <p>
+ * 该类是线程安全的.
+ *
+ * <pre>
+ * T9MetricsRecorder recorder = new T9MetricsRecorder();
+ * T9Utils.setMetricsListener(recorder);
+ * ...
+ * String report = recorder.toString();
+ * </pre>
+ */
+public final class T9MetricsRecorder implements T9MetricsListener {
+
+    /**
+     * 单独记录的 constraint 的最大长度, 更长的 constraint 与该长度一起记录.
+     */
+    public static final int MAX_CONSTRAINT_LENGTH = 16;
+
+    private static final String[] POOL_NAMES = {
+            "StringBuilder", "BitSet", "MatchSpans", "KeyBuffers"
+    };
+
+    private final T9Histogram[] mMatchLatencies = new T9Histogram[MAX_CONSTRAINT_LENGTH + 1];
+    private final T9Histogram[] mBatchMatchLatencies = new T9Histogram[MAX_CONSTRAINT_LENGTH + 1];
+    private final T9Histogram mKeyBuildLatency = new T9Histogram();
+    private final T9Histogram mAlternativeCounts = new T9Histogram();
+
+    // [0, POOL_COUNT) 命中次数, [POOL_COUNT, POOL_COUNT * 2) 未命中次数
+    private final AtomicLongArray mPoolCounts = new AtomicLongArray(POOL_COUNT * 2);
+
+    public T9MetricsRecorder() {
+        for (int i = 0; i < mMatchLatencies.length; i++) {
+            mMatchLatencies[i] = new T9Histogram();
+            mBatchMatchLatencies[i] = new T9Histogram();
+        }
+    }
+
+    @Override
+    public void onMatch(int constraintLength, boolean found, long durationNanos) {
+        mMatchLatencies[clampLength(constraintLength)].record(durationNanos);
+    }
+
+    @Override
+    public void onBatchMatch(int constraintLength, int entryCount, int hitCount,
+                             long durationNanos) {
+        mBatchMatchLatencies[clampLength(constraintLength)].record(durationNanos);
+    }
+
+    @Override
+    public void onKeyBuilt(int nameLength, int alternativeCount, long durationNanos) {
+        mKeyBuildLatency.record(durationNanos);
+        mAlternativeCounts.record(alternativeCount);
+    }
+
+    @Override
+    public void onPoolAcquire(int pool, boolean hit) {
+        if (pool >= 0 && pool < POOL_COUNT) {
+            mPoolCounts.incrementAndGet(hit ? pool : POOL_COUNT + pool);
+        }
+    }
+
+    private static int clampLength(int constraintLength) {
+        return Math.max(0, Math.min(constraintLength, MAX_CONSTRAINT_LENGTH));
+    }
+
+    /**
+     * @param constraintLength constraint 的长度, 大于 {@link #MAX_CONSTRAINT_LENGTH} 时与该长度一起记录.
+     * @return 名称匹配的耗时(纳秒)
+     */
+    @Nonnull
+    public T9Histogram getMatchLatency(int constraintLength) {
+        return mMatchLatencies[clampLength(constraintLength)];
+    }
+
+    /**
+     * @param constraintLength constraint 的长度, 大于 {@link #MAX_CONSTRAINT_LENGTH} 时与该长度一起记录.
+     * @return 每次批量名称匹配的耗时(纳秒)
+     */
+    @Nonnull
+    public T9Histogram getBatchMatchLatency(int constraintLength) {
+        return mBatchMatchLatencies[clampLength(constraintLength)];
+    }
+
+    /**
+     * @return 生成 t9 key 的耗时(纳秒)
+     */
+    @Nonnull
+    public T9Histogram getKeyBuildLatency() {
+        return mKeyBuildLatency;
+    }
+
+    /**
+     * @return 生成的 t9 key 中的选项数量
+     */
+    @Nonnull
+    public T9Histogram getAlternativeCounts() {
+        return mAlternativeCounts;
+    }
+
+    /**
+     * @param pool 缓冲池, {@link T9MetricsListener} 中的 <code>POOL_*</code> 之一.
+     * @return 命中次数
+     */
+    public long getPoolHitCount(int pool) {
+        return mPoolCounts.get(pool);
+    }
+
+    /**
+     * @param pool 缓冲池, {@link T9MetricsListener} 中的 <code>POOL_*</code> 之一.
+     * @return 未命中次数
+     */
+    public long getPoolMissCount(int pool) {
+        return mPoolCounts.get(POOL_COUNT + pool);
+    }
+
+    /**
+     * @param pool 缓冲池, {@link T9MetricsListener} 中的 <code>POOL_*</code> 之一.
+     * @return 命中率, 没有获取过缓冲时为0.
+     */
+    public double getPoolHitRate(int pool) {
+        final long hits = getPoolHitCount(pool);
+        final long total = hits + getPoolMissCount(pool);
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * 清除所有记录
+     */
+    public void reset() {
+        for (T9Histogram histogram : mMatchLatencies) {
+            histogram.reset();
+        }
+        for (T9Histogram histogram : mBatchMatchLatencies) {
+            histogram.reset();
+        }
+        mKeyBuildLatency.reset();
+        mAlternativeCounts.reset();
+        for (int i = 0; i < mPoolCounts.length(); i++) {
+            mPoolCounts.set(i, 0);
+        }
+    }
+
+    /**
+     * @return 文本形式的报告, 耗时的单位为纳秒.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        appendLatencies(sb, "match", mMatchLatencies);
+        appendLatencies(sb, "matchAll", mBatchMatchLatencies);
+        sb.append("buildKey: ").append(mKeyBuildLatency).append('\n');
+        sb.append("alternatives: ").append(mAlternativeCounts).append('\n');
+        for (int pool = 0; pool < POOL_COUNT; pool++) {
+            sb.append("pool[").append(POOL_NAMES[pool]).append("]: hits=")
+                    .append(getPoolHitCount(pool)).append(", misses=")
+                    .append(getPoolMissCount(pool)).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static void appendLatencies(StringBuilder sb, String name, T9Histogram[] latencies) {
+        for (int length = 1; length <= MAX_CONSTRAINT_LENGTH; length++) {
+            T9Histogram histogram = latencies[length];
+            if (histogram.getCount() > 0) {
+                sb.append(name).append('[').append(length)
+                        .append(length == MAX_CONSTRAINT_LENGTH ? "+" : "")
+                        .append("]: ").append(histogram).append('\n');
+            }
+        }
+    }
+
+}
@@ -0,0 +1,247 @@
+package cn.tinkling.t9;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * 电话号码索引
+ * <p>
+ * 按号码中连续的两位及三位数字建立倒排表. 查询时从查询串的所有三位数字中选出倒排表最短的两个求交集,
+ * 只对交集中的候选条目执行 {@link T9Matcher#matchesNumber(String, String)},
+ * 因此结果的匹配信息与逐条匹配完全一致. 单个字符或含有非数字字符的查询串会退化为逐条匹配.
+ * <p>
+ * 支持增量添加和删除. 删除的条目先被标记, 当被删除的条目数量超过有效条目数量时再从倒排表中清除.
+ * 条目ID在删除后不会被重新使用.
+ * <p>
+ * 该类不是线程安全的, 多个线程同时访问且至少有一个线程修改索引时需要在外部同步.
+ */
+public final class T9NumberIndex {
+
+    private static final int BIGRAM_COUNT = 10 * 10;
+    private static final int TRIGRAM_OFFSET = BIGRAM_COUNT;
+    private static final int POSTING_COUNT = BIGRAM_COUNT + 10 * 10 * 10;
+
+    private static final IntList EMPTY_POSTING = new IntList(1);
+
+    private final ArrayList<String> mNumbers = new ArrayList<>();
+    private final IntList[] mPostings = new IntList[POSTING_COUNT];
+    private int mRemovedCount;
+
+    public T9NumberIndex() {
+    }
+
+    /**
+     * @param phoneNumbers 电话号码, 条目ID即为号码在列表中的位置, 允许为<code>null</code>.
+     */
+    public T9NumberIndex(@Nonnull List<String> phoneNumbers) {
+        mNumbers.ensureCapacity(phoneNumbers.size());
+        for (String phoneNumber : phoneNumbers) {
+            add(phoneNumber);
+        }
+    }
+
+    /**
+     * 添加电话号码
+     *
+     * @param phoneNumber 电话号码
+     * @return 条目ID
+     */
+    public int add(@Nullable String phoneNumber) {
+        final int id = mNumbers.size();
+        mNumbers.add(phoneNumber);
+        if (phoneNumber == null)
+            return id;
+
+        final int len = phoneNumber.length();
+        for (int i = 0; i + 1 < len; i++) {
+            int first = toDigit(phoneNumber.charAt(i));
+            int second = toDigit(phoneNumber.charAt(i + 1));
+            if (first < 0 || second < 0)
+                continue;
+
+            addPosting(first * 10 + second, id);
+            if (i + 2 < len) {
+                int third = toDigit(phoneNumber.charAt(i + 2));
+                if (third >= 0) {
+                    addPosting(trigram(first, second, third), id);
+                }
+            }
+        }
+
+        return id;
+    }
+
+    private void addPosting(int posting, int id) {
+        IntList list = mPostings[posting];
+        if (list == null) {
+            mPostings[posting] = list = new IntList();
+        }
+        // 条目按ID递增的顺序加入, 只需检查最后一个即可去重
+        if (list.last() != id) {
+            list.add(id);
+        }
+    }
+
+    /**
+     * 删除电话号码
+     *
+     * @param id 条目ID
+     * @return <code>true</code> - 如果条目存在且已被删除, <code>false</code> - 其他.
+     */
+    public boolean remove(int id) {
+        if (id < 0 || id >= mNumbers.size() || mNumbers.get(id) == null)
+            return false;
+
+        mNumbers.set(id, null);
+        mRemovedCount++;
+        if (mRemovedCount > mNumbers.size() - mRemovedCount) {
+            purge();
+        }
+        return true;
+    }
+
+    private void purge() {
+        for (IntList list : mPostings) {
+            if (list == null)
+                continue;
+
+            int size = 0;
+            for (int i = 0; i < list.size(); i++) {
+                int id = list.get(i);
+                if (mNumbers.get(id) != null) {
+                    list.set(size++, id);
+                }
+            }
+            list.truncate(size);
+        }
+        mRemovedCount = 0;
+    }
+
+    private static int toDigit(char c) {
+        return c >= '0' && c <= '9' ? c - '0' : -1;
+    }
+
+    private static int trigram(int first, int second, int third) {
+        return TRIGRAM_OFFSET + first * 100 + second * 10 + third;
+    }
+
+    /**
+     * @return 条目数量, 包括已被删除的条目.
+     */
+    public int size() {
+        return mNumbers.size();
+    }
+
+    /**
+     * @param id 条目ID
+     * @return 电话号码, 如果条目已被删除则返回<code>null</code>.
+     */
+    @Nullable
+    public String getNumber(int id) {
+        return mNumbers.get(id);
+    }
+
+    /**
+     * 搜索
+     *
+     * @param constraint the constraint.
+     * @return 按条目ID升序排列的匹配结果
+     * @see T9Matcher#matchesNumber(String, String)
+     */
+    @Nonnull
+    public List<T9Hit> search(@Nullable String constraint) {
+        List<T9Hit> hits = new ArrayList<>();
+        if (T9Utils.isEmpty(constraint))
+            return hits;
+
+        final IntList[] postings = new IntList[2];
+        if (!getCandidates(constraint, postings)) {
+            // 无法使用索引, 退化为逐条匹配
+            for (int id = 0; id < mNumbers.size(); id++) {
+                matches(hits, id, constraint);
+            }
+            return hits;
+        }
+
+        // 两个倒排表都按ID升序排列, 按归并的方式求交集
+        final IntList candidates = postings[0];
+        final IntList filter = postings[1];
+        for (int i = 0, j = 0; i < candidates.size(); i++) {
+            final int id = candidates.get(i);
+            if (filter != null) {
+                while (j < filter.size() && filter.get(j) < id) {
+                    j++;
+                }
+                if (j == filter.size())
+                    break;
+                if (filter.get(j) != id)
+                    continue;
+            }
+
+            matches(hits, id, constraint);
+        }
+        return hits;
+    }
+
+    /**
+     * 选出最短的两个倒排表, 保存到 postings 中, 只有一个时 postings[1] 为<code>null</code>.
+     *
+     * @return <code>false</code> - 如果无法使用索引.
+     */
+    private boolean getCandidates(String constraint, IntList[] postings) {
+        final int len = constraint.length();
+        if (len < 2)
+            return false;
+
+        for (int i = 0; i < len; i++) {
+            if (toDigit(constraint.charAt(i)) < 0)
+                return false;
+        }
+
+        if (len == 2) {
+            postings[0] = getPosting(toDigit(constraint.charAt(0)) * 10 + toDigit(constraint.charAt(1)));
+            return true;
+        }
+
+        IntList shortest = null;
+        IntList second = null;
+        for (int i = 0; i + 2 < len; i++) {
+            IntList list = getPosting(trigram(toDigit(constraint.charAt(i)),
+                    toDigit(constraint.charAt(i + 1)), toDigit(constraint.charAt(i + 2))));
+            if (list == shortest || list == second)
+                continue;
+
+            if (shortest == null || list.size() < shortest.size()) {
+                second = shortest;
+                shortest = list;
+            } else if (second == null || list.size() < second.size()) {
+                second = list;
+            }
+        }
+
+        postings[0] = shortest;
+        postings[1] = second;
+        return true;
+    }
+
+    @Nonnull
+    private IntList getPosting(int posting) {
+        IntList list = mPostings[posting];
+        return list != null ? list : EMPTY_POSTING;
+    }
+
+    private void matches(List<T9Hit> hits, int id, String constraint) {
+        String phoneNumber = mNumbers.get(id);
+        if (phoneNumber == null)
+            return;
+
+        T9MatchInfo matchInfo = T9Matcher.matchesNumber(phoneNumber, constraint);
+        if (matchInfo.found()) {
+            hits.add(new T9Hit(id, new T9MatchInfo(), matchInfo));
+        }
+    }
+
+}
@@ -0,0 +1,151 @@
+package cn.tinkling.t9;
+
+import javax.annotation.Nonnull;
+
+/**
+ * 紧凑的二进制 T9 key
+ * <p>
+ * 每个符号占用一个字节, 与 {@link T9Utils#buildT9Key(String, PinyinProvider)} 生成的 key 逐字符对应:
+ * <ul>
+ * <li>低4位为T9索引(见 {@link T9Utils#convertT9CharToIndex(char)})</li>
+ * <li>{@link #INITIAL} 位表示该数字为首字母</li>
+ * <li>{@link #SPACE} 表示无法转换的字符(单独的一个词)</li>
+ * <li>{@link #DIVIDER} 表示多音字产生的候选 key 的分界</li>
+ * </ul>
+ * 首字母及数字的编码与 {@link T9Matcher} 位并行匹配时使用的编码相同, 因此两者共用同一套匹配逻辑.
+ * 大量的 key 应当使用 {@link T9PackedKeys} 连续存放在同一个 <code>byte[]</code> 中, 以省去每个 key 的对象头.
+ *
+ * @see T9PackedMatcher
+ * @see T9PackedKeys
+ */
+public final class T9PackedKey {
+
+    /**
+     * T9索引的掩码
+     */
+    public static final int DIGIT_MASK = 0x0F;
+    /**
+     * 首字母标志
+     */
+    public static final int INITIAL = 0x10;
+    /**
+     * 空白
+     */
+    public static final byte SPACE = 0x20;
+    /**
+     * 分隔符
+     */
+    public static final byte DIVIDER = 0x40;
+
+    private T9PackedKey() {
+    }
+
+    /**
+     * 将 T9 key 转换为二进制形式
+     *
+     * @param t9Key t9 key.
+     * @return 二进制形式的 T9 key.
+     * @throws IllegalArgumentException 如果 t9Key 不是有效的 T9 key.
+     */
+    @Nonnull
+    public static byte[] pack(@Nonnull String t9Key) {
+        byte[] packed = new byte[t9Key.length()];
+        pack(t9Key, packed, 0);
+        return packed;
+    }
+
+    /**
+     * 将 T9 key 转换为二进制形式并写入到 dest 中
+     *
+     * @throws IllegalArgumentException 如果 t9Key 不是有效的 T9 key.
+     */
+    static void pack(@Nonnull String t9Key, @Nonnull byte[] dest, int offset) {
+        final int len = t9Key.length();
+        for (int i = 0; i < len; i++) {
+            dest[offset + i] = pack(t9Key.charAt(i));
+        }
+    }
+
+    private static byte pack(char c) {
+        if (c == ' ') {
+            return SPACE;
+        } else if (c == T9Utils.T9_KEYS_DIVIDER) {
+            return DIVIDER;
+        } else if (T9Utils.isInitial(c)) {
+            char digit = T9Utils.convertInitialToDigit(c);
+            if (T9Utils.isValidT9Key(digit)) {
+                return (byte) (INITIAL | T9Utils.convertT9CharToIndex(digit));
+            }
+        } else if (T9Utils.isValidT9Key(c)) {
+            return (byte) T9Utils.convertT9CharToIndex(c);
+        }
+
+        throw new IllegalArgumentException("INVALID T9 KEY CHARACTER: " + c);
+    }
+
+    /**
+     * 将二进制形式的 T9 key 还原
+     *
+     * @param packed 二进制形式的 T9 key.
+     * @param offset 起始位置
+     * @param length 长度
+     * @return T9 key.
+     */
+    @Nonnull
+    public static String unpack(@Nonnull byte[] packed, int offset, int length) {
+        StringBuilder sb = T9Utils.getReusableStringBuilder();
+        for (int i = offset; i < offset + length; i++) {
+            byte b = packed[i];
+            if (b == SPACE) {
+                sb.append(' ');
+            } else if (b == DIVIDER) {
+                sb.append(T9Utils.T9_KEYS_DIVIDER);
+            } else {
+                char digit = T9Utils.convertIndexToT9Key(b & DIGIT_MASK);
+                sb.append(isInitial(b) ? T9Utils.convertDigitToInitial(digit) : digit);
+            }
+        }
+
+        String t9Key = sb.toString();
+        T9Utils.recycleStringBuilder(sb);
+        return t9Key;
+    }
+
+    /**
+     * @return 符号在 [from, to) 中第一次出现的位置, <code>-1</code> - 如果没有出现.
+     */
+    static int indexOf(@Nonnull byte[] packedKey, int symbol, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (packedKey[i] == symbol) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @see T9Utils#getWordsCount(String, int, int)
+     */
+    static int getWordsCount(@Nonnull byte[] packedKey, int start, int end) {
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            byte b = packedKey[i];
+            if (i == start || b == SPACE || isInitial(b)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    static boolean isInitial(byte b) {
+        return (b & INITIAL) != 0;
+    }
+
+    /**
+     * @return 指定T9字符对应的首字母符号, <code>-1</code> - 如果不是有效的T9字符.
+     */
+    static int toInitial(char c) {
+        return T9Utils.isValidT9Key(c) ? (INITIAL | T9Utils.convertT9CharToIndex(c)) : -1;
+    }
+
+}
@@ -0,0 +1,85 @@
+package cn.tinkling.t9;
+
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+/**
+ * 连续存放的一组二进制 T9 key
+ * <p>
+ * 所有 key 的符号保存在同一个 <code>byte[]</code> 中, 每个 key 只额外占用一个偏移量,
+ * 没有每个 key 的 String 及数组对象头. key 以ID访问.
+ * <p>
+ * 不可变, 可被多个线程同时匹配.
+ *
+ * @see T9PackedKey
+ * @see T9PackedMatcher#matches(T9PackedKeys, int, String, T9MatchSpans)
+ */
+public final class T9PackedKeys {
+
+    final byte[] mSymbols;
+    /**
+     * 每个 key 的起始位置, 最后一个元素为符号的总数.
+     */
+    final int[] mOffsets;
+
+    private T9PackedKeys(byte[] symbols, int[] offsets) {
+        mSymbols = symbols;
+        mOffsets = offsets;
+    }
+
+    /**
+     * @param t9Keys t9 keys, <code>null</code> 被视为空的 key.
+     * @return 二进制形式的 keys, ID为 key 在输入中的索引.
+     * @throws IllegalArgumentException 如果某个 key 不是有效的 T9 key.
+     */
+    @Nonnull
+    public static T9PackedKeys pack(@Nonnull String[] t9Keys) {
+        final int size = t9Keys.length;
+        final int[] offsets = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            offsets[i + 1] = offsets[i] + (t9Keys[i] != null ? t9Keys[i].length() : 0);
+        }
+
+        final byte[] symbols = new byte[offsets[size]];
+        for (int i = 0; i < size; i++) {
+            if (t9Keys[i] != null) {
+                T9PackedKey.pack(t9Keys[i], symbols, offsets[i]);
+            }
+        }
+        return new T9PackedKeys(symbols, offsets);
+    }
+
+    /**
+     * @see #pack(String[])
+     */
+    @Nonnull
+    public static T9PackedKeys pack(@Nonnull List<String> t9Keys) {
+        return pack(t9Keys.toArray(new String[t9Keys.size()]));
+    }
+
+    /**
+     * @return key 的数量
+     */
+    public int size() {
+        return mOffsets.length - 1;
+    }
+
+    /**
+     * @param id key 的ID
+     * @return 还原后的 t9 key
+     * @throws IndexOutOfBoundsException 如果ID无效.
+     */
+    @Nonnull
+    public String getT9Key(int id) {
+        checkId(id);
+        return T9PackedKey.unpack(mSymbols, mOffsets[id], mOffsets[id + 1] - mOffsets[id]);
+    }
+
+    void checkId(int id) {
+        if (id < 0 || id >= size()) {
+            throw new IndexOutOfBoundsException("id=" + id + ", size=" + size());
+        }
+    }
+
+}
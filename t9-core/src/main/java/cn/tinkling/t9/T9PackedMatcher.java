@@ -0,0 +1,211 @@
+package cn.tinkling.t9;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * 二进制 T9 key 的匹配工具类
+ * <p>
+ * 匹配规则及结果与 {@link T9Matcher} 相同, constraint 中包含无效的T9字符时不匹配.
+ * 与 {@link T9Matcher} 共用位并行的匹配逻辑, 少数无法位并行匹配的选项还原为字符串后使用
+ * {@link T9Matcher} 的回溯匹配.
+ *
+ * @see T9PackedKey
+ * @see T9PackedKeys
+ */
+public final class T9PackedMatcher {
+
+    private T9PackedMatcher() {
+    }
+
+    /**
+     * T9 匹配
+     *
+     * @param packedKey    二进制形式的 t9 key.
+     * @param t9Constraint the constraint.
+     * @return the match info.
+     * @see T9Matcher#matches(String, char)
+     */
+    @Nonnull
+    public static T9MatchInfo matches(@Nullable byte[] packedKey, char t9Constraint) {
+        if (packedKey == null)
+            return new T9MatchInfo();
+
+        return matches(packedKey, 0, packedKey.length, t9Constraint);
+    }
+
+    /**
+     * T9 匹配
+     *
+     * @param packedKey    二进制形式的 t9 key.
+     * @param offset       key 的起始位置
+     * @param length       key 的长度
+     * @param t9Constraint the constraint.
+     * @return the match info.
+     * @see T9Matcher#matches(String, char)
+     */
+    @Nonnull
+    public static T9MatchInfo matches(@Nonnull byte[] packedKey, int offset, int length,
+                                      char t9Constraint) {
+        T9MatchInfo matchInfo = new T9MatchInfo();
+
+        final int initial = T9PackedKey.toInitial(t9Constraint);
+        if (initial >= 0) {
+            int index = T9PackedKey.indexOf(packedKey, initial, offset, offset + length);
+            if (index >= 0) {
+                matchInfo.set(T9PackedKey.getWordsCount(packedKey,
+                        alternativeStart(packedKey, offset, index), index), 1);
+            }
+        }
+        return matchInfo;
+    }
+
+    /**
+     * T9 匹配
+     *
+     * @param packedKey    二进制形式的 t9 key.
+     * @param t9Constraint the constraint.
+     * @return the match info.
+     * @see T9Matcher#matches(String, String)
+     */
+    @Nonnull
+    public static T9MatchInfo matches(@Nullable byte[] packedKey, @Nullable String t9Constraint) {
+        if (packedKey == null)
+            return new T9MatchInfo();
+
+        return matches(packedKey, 0, packedKey.length, t9Constraint);
+    }
+
+    /**
+     * T9 匹配
+     *
+     * @param packedKey    二进制形式的 t9 key.
+     * @param offset       key 的起始位置
+     * @param length       key 的长度
+     * @param t9Constraint the constraint.
+     * @return the match info.
+     * @see T9Matcher#matches(String, String)
+     */
+    @Nonnull
+    public static T9MatchInfo matches(@Nonnull byte[] packedKey, int offset, int length,
+                                      @Nullable String t9Constraint) {
+        T9MatchSpans spans = T9Utils.getReusableMatchSpans();
+        matches(packedKey, offset, length, t9Constraint, spans);
+        T9MatchInfo matchInfo = spans.toMatchInfo();
+        T9Utils.recycleMatchSpans(spans);
+        return matchInfo;
+    }
+
+    /**
+     * T9 匹配
+     *
+     * @param keys         二进制形式的 t9 keys.
+     * @param id           key 的ID
+     * @param t9Constraint the constraint.
+     * @return the match info.
+     * @throws IndexOutOfBoundsException 如果ID无效.
+     * @see T9Matcher#matches(String, String)
+     */
+    @Nonnull
+    public static T9MatchInfo matches(@Nonnull T9PackedKeys keys, int id,
+                                      @Nullable String t9Constraint) {
+        keys.checkId(id);
+        return matches(keys.mSymbols, keys.mOffsets[id],
+                keys.mOffsets[id + 1] - keys.mOffsets[id], t9Constraint);
+    }
+
+    /**
+     * T9 匹配, 匹配结果写入到指定的 {@link T9MatchSpans} 中, 不会分配新的对象.
+     *
+     * @param keys         二进制形式的 t9 keys.
+     * @param id           key 的ID
+     * @param t9Constraint the constraint.
+     * @param spans        用于保存匹配结果, 匹配前会被清空.
+     * @return <code>true</code> - 已匹配, <code>false</code> - 其他.
+     * @throws IndexOutOfBoundsException 如果ID无效.
+     * @see T9Matcher#matches(String, String, T9MatchSpans)
+     */
+    public static boolean matches(@Nonnull T9PackedKeys keys, int id,
+                                  @Nullable String t9Constraint, @Nonnull T9MatchSpans spans) {
+        keys.checkId(id);
+        return matches(keys.mSymbols, keys.mOffsets[id],
+                keys.mOffsets[id + 1] - keys.mOffsets[id], t9Constraint, spans);
+    }
+
+    /**
+     * T9 匹配, 匹配结果写入到指定的 {@link T9MatchSpans} 中, 不会分配新的对象.
+     *
+     * @param packedKey    二进制形式的 t9 key.
+     * @param offset       key 的起始位置
+     * @param length       key 的长度
+     * @param t9Constraint the constraint.
+     * @param spans        用于保存匹配结果, 匹配前会被清空.
+     * @return <code>true</code> - 已匹配, <code>false</code> - 其他.
+     * @see T9Matcher#matches(String, String, T9MatchSpans)
+     */
+    public static boolean matches(@Nonnull byte[] packedKey, int offset, int length,
+                                  @Nullable String t9Constraint, @Nonnull T9MatchSpans spans) {
+        spans.reset();
+        if (length <= 0 || T9Utils.isEmpty(t9Constraint))
+            return false;
+
+        final int limit = offset + length;
+        if (t9Constraint.length() == 1) {
+            final int initial = T9PackedKey.toInitial(t9Constraint.charAt(0));
+            final int index = initial >= 0
+                    ? T9PackedKey.indexOf(packedKey, initial, offset, limit)
+                    : -1;
+            if (index < 0)
+                return false;
+
+            spans.add(T9PackedKey.getWordsCount(packedKey,
+                    alternativeStart(packedKey, offset, index), index), 1);
+            return true;
+        }
+
+        if (!T9Utils.isValidT9Key(t9Constraint))
+            return false;
+
+        final int first = T9PackedKey.toInitial(t9Constraint.charAt(0));
+        int start = offset;
+        int end;
+        do {
+            // 跳过不含首字符声母的选项
+            final int index = T9PackedKey.indexOf(packedKey, first, start, limit);
+            if (index < 0)
+                return false;
+
+            start = alternativeStart(packedKey, offset, index);
+            end = T9PackedKey.indexOf(packedKey, T9PackedKey.DIVIDER, index, limit);
+            if (end < 0)
+                end = limit;
+
+            if (matchesAlternative(packedKey, start, end, t9Constraint, spans))
+                return true;
+
+            start = end + 1;
+        } while (end < limit);
+
+        return false;
+    }
+
+    private static int alternativeStart(byte[] packedKey, int offset, int index) {
+        int start = index;
+        while (start > offset && packedKey[start - 1] != T9PackedKey.DIVIDER) {
+            start--;
+        }
+        return start;
+    }
+
+    private static boolean matchesAlternative(byte[] packedKey, int start, int end,
+                                              String t9Constraint, T9MatchSpans spans) {
+        final int result = T9BitMatcher.matches(packedKey, start, end, t9Constraint, spans);
+        if (result == T9BitMatcher.UNSUPPORTED) {
+            String alternative = T9PackedKey.unpack(packedKey, start, end - start);
+            return T9Matcher.matchesAlternative(alternative, 0, alternative.length(),
+                    t9Constraint, false, spans);
+        }
+        return result == T9BitMatcher.MATCHED;
+    }
+
+}
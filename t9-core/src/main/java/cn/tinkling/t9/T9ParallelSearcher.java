@@ -0,0 +1,123 @@
+package cn.tinkling.t9;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * 并行搜索
+ * <p>
+ * 将条目分块后由 executor 中的线程和调用线程一起匹配, 再按条目ID的顺序合并结果.
+ * 每个线程使用各自的 {@link T9MatchSpans}, 匹配过程中不会访问共享的缓冲池.
+ * 条目数量小于阈值时直接在调用线程中匹配.
+ * <p>
+ * 调用线程不会等待没有开始执行的任务, 因此 executor 可以是繁忙的或有界的线程池, 也可以在它自身的线程中调用,
+ * 例如在 JVM 上传入 <code>ForkJoinPool.commonPool()</code>. 该类是线程安全的.
+ */
+public final class T9ParallelSearcher {
+
+    /**
+     * 默认的并行阈值
+     */
+    public static final int DEFAULT_THRESHOLD = 16384;
+
+    private static final int CHUNK_SIZE = 2048;
+
+    private final Executor mExecutor;
+    private final int mThreshold;
+
+    /**
+     * @param executor 用于执行匹配任务的 executor.
+     */
+    public T9ParallelSearcher(@Nonnull Executor executor) {
+        this(executor, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param executor  用于执行匹配任务的 executor.
+     * @param threshold 并行阈值, 条目数量小于该值时不并行.
+     */
+    public T9ParallelSearcher(@Nonnull Executor executor, int threshold) {
+        if (executor == null) {
+            throw new NullPointerException("executor == null");
+        }
+
+        mExecutor = executor;
+        mThreshold = threshold;
+    }
+
+    /**
+     * 搜索
+     *
+     * @param t9Keys       t9 keys, 条目ID即为在数组中的位置.
+     * @param phoneNumbers 电话号码, 与 t9Keys 一一对应. 为<code>null</code>时只匹配 t9 keys.
+     * @param constraint   the constraint.
+     * @return 按条目ID升序排列的匹配结果, 名称或电话号码匹配的条目都会被包含.
+     * @throws IllegalArgumentException 如果 phoneNumbers 与 t9Keys 的长度不同.
+     * @throws InterruptedException     如果等待匹配任务完成时被中断.
+     * @see T9Matcher#matches(String, String)
+     * @see T9Matcher#matchesNumber(String, String)
+     */
+    @Nonnull
+    public List<T9Hit> search(@Nonnull final String[] t9Keys, @Nullable final String[] phoneNumbers,
+                              @Nullable final String constraint) throws InterruptedException {
+        if (phoneNumbers != null && phoneNumbers.length != t9Keys.length) {
+            throw new IllegalArgumentException("phoneNumbers.length != t9Keys.length");
+        }
+
+        if (T9Utils.isEmpty(constraint) || t9Keys.length == 0)
+            return new ArrayList<>();
+
+        final int chunkCount = ParallelChunks.getChunkCount(t9Keys.length, CHUNK_SIZE);
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final List<T9Hit>[] results = new List[chunkCount];
+
+        ParallelChunks.Task<T9MatchSpans[]> task = new ParallelChunks.Task<T9MatchSpans[]>() {
+            @Nonnull
+            @Override
+            T9MatchSpans[] createScratch() {
+                return new T9MatchSpans[]{new T9MatchSpans(), new T9MatchSpans()};
+            }
+
+            @Override
+            void process(@Nonnull T9MatchSpans[] spans, int chunk, int start, int end) {
+                List<T9Hit> hits = null;
+                for (int id = start; id < end; id++) {
+                    boolean nameFound = T9Matcher.matches(t9Keys[id], constraint, spans[0]);
+                    boolean numberFound = phoneNumbers != null &&
+                            T9Matcher.matchesNumber(phoneNumbers[id], constraint, spans[1]);
+                    if (nameFound || numberFound) {
+                        if (hits == null) {
+                            hits = new ArrayList<>();
+                        }
+                        hits.add(new T9Hit(id, spans[0].toMatchInfo(),
+                                numberFound ? spans[1].toMatchInfo() : new T9MatchInfo()));
+                    }
+                }
+                results[chunk] = hits != null ? hits : Collections.<T9Hit>emptyList();
+            }
+        };
+
+        if (t9Keys.length < mThreshold) {
+            ParallelChunks.executeSequentially(task, t9Keys.length, CHUNK_SIZE);
+        } else {
+            ParallelChunks.execute(task, t9Keys.length, CHUNK_SIZE, mExecutor);
+        }
+
+        int size = 0;
+        for (List<T9Hit> hits : results) {
+            size += hits.size();
+        }
+
+        List<T9Hit> hits = new ArrayList<>(size);
+        for (List<T9Hit> chunkHits : results) {
+            hits.addAll(chunkHits);
+        }
+        return hits;
+    }
+
+}
@@ -0,0 +1,139 @@
+package cn.tinkling.t9;
+
+import javax.annotation.Nonnull;
+
+/**
+ * 规范化的电话号码
+ * <p>
+ * 去除号码中的格式字符(空格, '(', ')', '-')后用于匹配, 同时保存去除的位置,
+ * 以便将匹配位置映射回原号码中. 没有格式字符的号码不会被复制.
+ *
+ * @see T9Matcher#matchesNumber(T9PhoneNumber, String)
+ */
+public final class T9PhoneNumber {
+
+    private static final int[] NO_SHIFTS = new int[0];
+
+    private final String mOriginal;
+    private final String mNormalized;
+
+    /**
+     * 偏移表, 每两个元素为一组: 规范化号码中的位置, 以及从该位置开始需要加上的偏移量.
+     */
+    private final int[] mShifts;
+
+    private T9PhoneNumber(String original, String normalized, int[] shifts) {
+        mOriginal = original;
+        mNormalized = normalized;
+        mShifts = shifts;
+    }
+
+    /**
+     * 规范化电话号码
+     *
+     * @param phoneNumber 电话号码
+     * @return 规范化的电话号码
+     */
+    @Nonnull
+    public static T9PhoneNumber normalize(@Nonnull String phoneNumber) {
+        final int len = phoneNumber.length();
+
+        char[] chars = null;
+        int[] shifts = NO_SHIFTS;
+        int shiftCount = 0;
+        int size = 0;
+        for (int i = 0; i < len; i++) {
+            final char c = phoneNumber.charAt(i);
+            if (isFormatChar(c)) {
+                if (chars == null) {
+                    chars = new char[len - 1];
+                    phoneNumber.getChars(0, i, chars, 0);
+                    shifts = new int[4];
+                }
+                continue;
+            }
+
+            if (chars != null) {
+                final int shift = i - size;
+                if (shift != (shiftCount == 0 ? 0 : shifts[shiftCount * 2 - 1])) {
+                    if (shiftCount * 2 == shifts.length) {
+                        shifts = copyOf(shifts, shifts.length * 2);
+                    }
+                    shifts[shiftCount * 2] = size;
+                    shifts[shiftCount * 2 + 1] = shift;
+                    shiftCount++;
+                }
+                chars[size] = c;
+            }
+            size++;
+        }
+
+        if (chars == null) {
+            return new T9PhoneNumber(phoneNumber, phoneNumber, NO_SHIFTS);
+        }
+
+        return new T9PhoneNumber(phoneNumber, new String(chars, 0, size),
+                shiftCount * 2 == shifts.length ? shifts : copyOf(shifts, shiftCount * 2));
+    }
+
+    private static int[] copyOf(int[] array, int length) {
+        int[] copy = new int[length];
+        System.arraycopy(array, 0, copy, 0, Math.min(array.length, length));
+        return copy;
+    }
+
+    private static boolean isFormatChar(char c) {
+        return c == ' ' || c == '(' || c == ')' || c == '-';
+    }
+
+    /**
+     * @return 原电话号码
+     */
+    @Nonnull
+    public String original() {
+        return mOriginal;
+    }
+
+    /**
+     * @return 去除格式字符后的电话号码
+     */
+    @Nonnull
+    public String normalized() {
+        return mNormalized;
+    }
+
+    /**
+     * 将规范化号码中的位置映射为原号码中的位置
+     *
+     * @param index 规范化号码中的位置, 可以等于规范化号码的长度.
+     * @return 原号码中的位置
+     */
+    public int toOriginalIndex(int index) {
+        if (index < 0 || index > mNormalized.length()) {
+            throw new IndexOutOfBoundsException("index=" + index + ", length=" + mNormalized.length());
+        }
+
+        if (index == mNormalized.length())
+            return mOriginal.length();
+
+        int low = 0;
+        int high = mShifts.length / 2 - 1;
+        int shift = 0;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            if (mShifts[mid * 2] <= index) {
+                shift = mShifts[mid * 2 + 1];
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return index + shift;
+    }
+
+    @Override
+    public String toString() {
+        return mOriginal;
+    }
+
+}
@@ -0,0 +1,198 @@
+package cn.tinkling.t9;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * {@link T9LiveIndex} 的搜索结果缓存
+ * <p>
+ * 以 constraint 为键缓存搜索结果, 按最近最少使用(LRU)的顺序淘汰. 没有完全相同的 constraint 时,
+ * 在缓存中最长的前缀的结果中搜索, 而不是搜索整个索引: 能匹配 constraint 的条目一定也能匹配它的前缀.
+ * <p>
+ * 缓存的大小以结果中的条目数量计算, 每个 constraint 额外计为一个条目. 缓存记录了结果所属快照的版本号,
+ * 搜索较新的快照时缓存中的内容全部作废.
+ * <p>
+ * 该类是线程安全的. 搜索本身不持有锁, 多个线程可以同时搜索.
+ */
+public final class T9QueryCache {
+
+    private final T9LiveIndex mIndex;
+    private final int mMaxSize;
+
+    private final LinkedHashMap<String, List<T9Hit>> mEntries = new LinkedHashMap<>(16, 0.75f, true);
+    private long mVersion = -1;
+    private int mSize;
+
+    private long mHitCount;
+    private long mPrefixHitCount;
+    private long mMissCount;
+
+    /**
+     * @param index   索引
+     * @param maxSize 缓存的最大大小, 即所有缓存结果的条目数量之和加上缓存的 constraint 数量.
+     * @throws IllegalArgumentException 如果 maxSize 小于1.
+     */
+    public T9QueryCache(@Nonnull T9LiveIndex index, int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("The max size must be > 0");
+        }
+
+        mIndex = index;
+        mMaxSize = maxSize;
+    }
+
+    /**
+     * 搜索索引的当前快照
+     *
+     * @param constraint the constraint.
+     * @return 按条目ID升序排列的不可修改的匹配结果
+     * @see #search(T9LiveIndex.Snapshot, String)
+     */
+    @Nonnull
+    public List<T9Hit> search(@Nullable String constraint) {
+        return search(mIndex.snapshot(), constraint);
+    }
+
+    /**
+     * 搜索
+     *
+     * @param snapshot   索引的快照
+     * @param constraint the constraint.
+     * @return 按条目ID升序排列的不可修改的匹配结果
+     * @throws IllegalArgumentException 如果快照不属于该缓存的索引.
+     * @see T9LiveIndex.Snapshot#search(String)
+     */
+    @Nonnull
+    public List<T9Hit> search(@Nonnull T9LiveIndex.Snapshot snapshot, @Nullable String constraint) {
+        // 缓存只按版本号区分结果, 其他索引的快照的版本号没有意义.
+        if (snapshot.mIndex != mIndex) {
+            throw new IllegalArgumentException("The snapshot does not belong to the cached index");
+        }
+
+        if (T9Utils.isEmpty(constraint))
+            return Collections.emptyList();
+
+        final long version = snapshot.version();
+        List<T9Hit> base = null;
+        synchronized (this) {
+            if (version > mVersion) {
+                clearEntries();
+                mVersion = version;
+            }
+
+            if (version == mVersion) {
+                List<T9Hit> hits = mEntries.get(constraint);
+                if (hits != null) {
+                    mHitCount++;
+                    return hits;
+                }
+
+                for (int length = constraint.length() - 1; length > 0 && base == null; length--) {
+                    base = mEntries.get(constraint.substring(0, length));
+                }
+            }
+
+            if (base != null) {
+                mPrefixHitCount++;
+            } else {
+                mMissCount++;
+            }
+        }
+
+        List<T9Hit> hits = Collections.unmodifiableList(base != null
+                ? snapshot.refine(base, constraint)
+                : snapshot.search(constraint));
+
+        synchronized (this) {
+            // 搜索期间可能已经有较新的快照
+            if (version == mVersion) {
+                put(constraint, hits);
+            }
+        }
+        return hits;
+    }
+
+    private void put(String constraint, List<T9Hit> hits) {
+        final int size = hits.size() + 1;
+        if (size > mMaxSize)
+            return;
+
+        List<T9Hit> previous = mEntries.put(constraint, hits);
+        if (previous != null) {
+            mSize -= previous.size() + 1;
+        }
+        mSize += size;
+
+        Iterator<List<T9Hit>> iterator = mEntries.values().iterator();
+        while (mSize > mMaxSize) {
+            mSize -= iterator.next().size() + 1;
+            iterator.remove();
+        }
+    }
+
+    private void clearEntries() {
+        mEntries.clear();
+        mSize = 0;
+    }
+
+    /**
+     * 清除缓存的结果, 不会清除统计数据.
+     */
+    public synchronized void clear() {
+        clearEntries();
+    }
+
+    /**
+     * @return 缓存的当前大小
+     * @see #T9QueryCache(T9LiveIndex, int)
+     */
+    public synchronized int size() {
+        return mSize;
+    }
+
+    /**
+     * @return 缓存中有完全相同的 constraint 的次数
+     */
+    public synchronized long getHitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * @return 缓存中没有完全相同的 constraint, 但是有它的前缀的次数.
+     */
+    public synchronized long getPrefixHitCount() {
+        return mPrefixHitCount;
+    }
+
+    /**
+     * @return 需要搜索整个索引的次数
+     */
+    public synchronized long getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * @return 命中率, 即完全命中的次数占搜索次数的比例, 没有搜索过时为0.
+     */
+    public synchronized double getHitRate() {
+        final long total = mHitCount + mPrefixHitCount + mMissCount;
+        return total == 0 ? 0 : (double) mHitCount / total;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "T9QueryCache{" +
+               "size=" + mSize +
+               ", maxSize=" + mMaxSize +
+               ", hits=" + mHitCount +
+               ", prefixHits=" + mPrefixHitCount +
+               ", misses=" + mMissCount +
+               '}';
+    }
+
+}
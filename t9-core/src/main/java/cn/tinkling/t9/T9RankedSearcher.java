@@ -0,0 +1,227 @@
+package cn.tinkling.t9;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * 排序搜索
+ * <p>
+ * 匹配时为每个条目计算一个整数分值, 用大小为 limit 的堆只保留分值最好的条目, 不需要收集并排序所有的匹配结果.
+ * 排序规则:
+ * <ol>
+ * <li>名称匹配的条目排在只有电话号码匹配的条目之前;</li>
+ * <li>名称匹配的条目按匹配的起始位置升序, 匹配的总长度降序, 名称的长度升序, 名称(忽略大小写)升序排列;</li>
+ * <li>电话号码匹配的条目按匹配的起始位置升序, 电话号码(忽略大小写)升序排列;</li>
+ * <li>以上都相同时按条目ID升序排列.</li>
+ * </ol>
+ */
+public final class T9RankedSearcher {
+
+    private static final int FIELD_BITS = 20;
+    private static final int FIELD_MAX = (1 << FIELD_BITS) - 1;
+    private static final long NUMBER_ONLY = 1L << (FIELD_BITS * 3);
+
+    private T9RankedSearcher() {
+    }
+
+    /**
+     * 搜索并返回排序最靠前的 limit 个条目
+     *
+     * @param names        名称, 条目ID即为在数组中的位置.
+     * @param t9Keys       t9 keys, 与 names 一一对应.
+     * @param phoneNumbers 电话号码, 与 names 一一对应. 为<code>null</code>时只匹配 t9 keys.
+     * @param constraint   the constraint.
+     * @param limit        最多返回的条目数量.
+     * @return 排序后的匹配结果.
+     * @throws IllegalArgumentException 如果数组的长度不同.
+     * @see T9Matcher#matches(String, String)
+     * @see T9Matcher#matchesNumber(String, String)
+     */
+    @Nonnull
+    public static List<T9Hit> search(@Nonnull String[] names, @Nonnull String[] t9Keys,
+                                     @Nullable String[] phoneNumbers, @Nullable String constraint,
+                                     int limit) {
+        return search(names, t9Keys, phoneNumbers, constraint, limit, null);
+    }
+
+    /**
+     * 搜索并返回排序最靠前的 limit 个条目, 匹配过程中定期检查取消标记.
+     *
+     * @param names        名称, 条目ID即为在数组中的位置.
+     * @param t9Keys       t9 keys, 与 names 一一对应.
+     * @param phoneNumbers 电话号码, 与 names 一一对应. 为<code>null</code>时只匹配 t9 keys.
+     * @param constraint   the constraint.
+     * @param limit        最多返回的条目数量.
+     * @param token        取消标记, 为<code>null</code>时不能取消.
+     * @return 排序后的匹配结果, 被取消时返回空的列表.
+     * @throws IllegalArgumentException 如果数组的长度不同.
+     * @see #search(String[], String[], String[], String, int)
+     */
+    @Nonnull
+    public static List<T9Hit> search(@Nonnull String[] names, @Nonnull String[] t9Keys,
+                                     @Nullable String[] phoneNumbers, @Nullable String constraint,
+                                     int limit, @Nullable T9CancellationToken token) {
+        if (t9Keys.length != names.length
+                || (phoneNumbers != null && phoneNumbers.length != names.length)) {
+            throw new IllegalArgumentException("array lengths differ");
+        }
+
+        if (T9Utils.isEmpty(constraint) || names.length == 0 || limit <= 0)
+            return new ArrayList<>();
+
+        T9MatchSpans nameSpans = T9Utils.getReusableMatchSpans();
+        T9MatchSpans numberSpans = T9Utils.getReusableMatchSpans();
+        Heap heap = new Heap(names, phoneNumbers, Math.min(limit, names.length));
+        try {
+            for (int id = 0; id < names.length; id++) {
+                if (token != null && (id % T9StreamingSearcher.CHUNK_SIZE) == 0
+                        && token.isCancelled()) {
+                    return new ArrayList<>();
+                }
+
+                long score;
+                if (T9Matcher.matches(t9Keys[id], constraint, nameSpans)) {
+                    score = nameScore(nameSpans.start(0), nameSpans.totalLength(),
+                            names[id] == null ? 0 : names[id].length());
+                } else if (phoneNumbers != null
+                        && T9Matcher.matchesNumber(phoneNumbers[id], constraint, numberSpans)) {
+                    score = NUMBER_ONLY | clamp(numberSpans.start(0));
+                } else {
+                    continue;
+                }
+
+                heap.offer(id, score);
+            }
+
+            // 只为最终的结果创建 T9MatchInfo
+            final int[] ids = heap.drain();
+            List<T9Hit> hits = new ArrayList<>(ids.length);
+            for (int id : ids) {
+                T9MatchInfo nameMatch = T9Matcher.matches(t9Keys[id], constraint, nameSpans)
+                        ? nameSpans.toMatchInfo() : new T9MatchInfo();
+                T9MatchInfo numberMatch = phoneNumbers != null
+                        && T9Matcher.matchesNumber(phoneNumbers[id], constraint, numberSpans)
+                        ? numberSpans.toMatchInfo() : new T9MatchInfo();
+                hits.add(new T9Hit(id, nameMatch, numberMatch));
+            }
+            return hits;
+        } finally {
+            T9Utils.recycleMatchSpans(nameSpans);
+            T9Utils.recycleMatchSpans(numberSpans);
+        }
+    }
+
+    private static long nameScore(int start, int matchLength, int nameLength) {
+        return ((long) clamp(start) << (FIELD_BITS * 2))
+                | ((long) (FIELD_MAX - clamp(matchLength)) << FIELD_BITS)
+                | clamp(nameLength);
+    }
+
+    private static int clamp(int value) {
+        return Math.min(value, FIELD_MAX);
+    }
+
+    /**
+     * 最大堆, 堆顶为当前保留的条目中排序最靠后的一个.
+     */
+    private static final class Heap {
+
+        final String[] mNames;
+        final String[] mPhoneNumbers;
+        final int mCapacity;
+
+        int[] mIds = new int[16];
+        long[] mScores = new long[16];
+        int mSize;
+
+        Heap(String[] names, String[] phoneNumbers, int capacity) {
+            mNames = names;
+            mPhoneNumbers = phoneNumbers;
+            mCapacity = capacity;
+        }
+
+        void offer(int id, long score) {
+            if (mSize < mCapacity) {
+                if (mSize == mIds.length) {
+                    final int newLength = (int) Math.min((long) mSize * 2, mCapacity);
+                    int[] ids = new int[newLength];
+                    long[] scores = new long[newLength];
+                    System.arraycopy(mIds, 0, ids, 0, mSize);
+                    System.arraycopy(mScores, 0, scores, 0, mSize);
+                    mIds = ids;
+                    mScores = scores;
+                }
+
+                int i = mSize++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (compare(mIds[parent], mScores[parent], id, score) >= 0)
+                        break;
+
+                    mIds[i] = mIds[parent];
+                    mScores[i] = mScores[parent];
+                    i = parent;
+                }
+                mIds[i] = id;
+                mScores[i] = score;
+            } else if (compare(id, score, mIds[0], mScores[0]) < 0) {
+                siftDown(id, score, mSize);
+            }
+        }
+
+        private void siftDown(int id, long score, int size) {
+            int i = 0;
+            int child;
+            while ((child = 2 * i + 1) < size) {
+                if (child + 1 < size
+                        && compare(mIds[child + 1], mScores[child + 1], mIds[child], mScores[child]) > 0) {
+                    child++;
+                }
+
+                if (compare(id, score, mIds[child], mScores[child]) >= 0)
+                    break;
+
+                mIds[i] = mIds[child];
+                mScores[i] = mScores[child];
+                i = child;
+            }
+            mIds[i] = id;
+            mScores[i] = score;
+        }
+
+        /**
+         * @return 按排序升序排列的条目ID
+         */
+        int[] drain() {
+            int[] ids = new int[mSize];
+            for (int size = mSize; size > 0; size--) {
+                ids[size - 1] = mIds[0];
+                siftDown(mIds[size - 1], mScores[size - 1], size - 1);
+            }
+            mSize = 0;
+            return ids;
+        }
+
+        private int compare(int lId, long lScore, int rId, long rScore) {
+            if (lScore != rScore)
+                return lScore < rScore ? -1 : 1;
+
+            String[] texts = (lScore & NUMBER_ONLY) == 0 ? mNames : mPhoneNumbers;
+            String left = texts[lId];
+            String right = texts[rId];
+            if (left != null && right != null) {
+                int result = left.compareToIgnoreCase(right);
+                if (result != 0)
+                    return result;
+            } else if (left != right) {
+                return left == null ? -1 : 1;
+            }
+
+            return lId < rId ? -1 : (lId == rId ? 0 : 1);
+        }
+    }
+
+}
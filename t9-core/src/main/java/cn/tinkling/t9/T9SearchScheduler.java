@@ -0,0 +1,266 @@
+package cn.tinkling.t9;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * 搜索调度器
+ * <p>
+ * 由一个工作线程依次执行搜索. 工作线程忙碌时提交的 constraint 只保留最新的一个;
+ * 提交新的 constraint 时取消正在执行的搜索, 搜索在下一个检查点停止. 只有最新提交的 constraint
+ * 的结果会被发送给 {@link Callback}, 因此连续输入时最多只有一个搜索在占用 CPU.
+ * <p>
+ * 该类是线程安全的.
+ *
+ * @param <R> 搜索结果的类型
+ */
+public final class T9SearchScheduler<R> {
+
+    /**
+     * 搜索
+     *
+     * @param <R> 搜索结果的类型
+     */
+    public interface Search<R> {
+
+        /**
+         * 在工作线程中执行搜索, 应当定期检查取消标记, 被取消后尽快返回, 此时的返回值会被丢弃.
+         * 抛出的 {@link RuntimeException} 会被捕获并通过 {@link Callback#onError(String, RuntimeException)}
+         * 发送, 工作线程继续处理之后的提交.
+         *
+         * @param constraint the constraint.
+         * @param token      取消标记
+         * @return 搜索结果
+         */
+        @Nullable
+        R search(@Nullable String constraint, @Nonnull T9CancellationToken token);
+    }
+
+    /**
+     * 接收搜索结果
+     *
+     * @param <R> 搜索结果的类型
+     */
+    public interface Callback<R> {
+
+        /**
+         * 在 delivery executor 中被调用, 只有最新提交的 constraint 的结果会被发送.
+         *
+         * @param constraint the constraint.
+         * @param result     搜索结果
+         */
+        void onResult(@Nullable String constraint, @Nullable R result);
+
+        /**
+         * 搜索抛出异常时在 delivery executor 中被调用, 与 {@link #onResult(String, Object)} 一样,
+         * 只有最新提交的 constraint 的异常会被发送.
+         *
+         * @param constraint the constraint.
+         * @param e          搜索抛出的异常
+         */
+        void onError(@Nullable String constraint, @Nonnull RuntimeException e);
+    }
+
+    private final Search<R> mSearch;
+    private final Callback<R> mCallback;
+    private final Executor mDeliveryExecutor;
+
+    private final Object mLock = new Object();
+
+    // 以下字段由 mLock 保护
+    private String mPendingConstraint;
+    private boolean mHasPending;
+    private T9CancellationToken mRunningToken;
+    private Thread mWorker;
+
+    /**
+     * 每次提交时递增, 用于丢弃过时的结果.
+     */
+    private volatile long mGeneration;
+    private volatile boolean mShutdown;
+
+    /**
+     * @param search           搜索
+     * @param callback         接收搜索结果
+     * @param deliveryExecutor 用于调用 callback 的 executor, 例如提交到 UI 线程. 拒绝执行时该次结果被丢弃.
+     */
+    public T9SearchScheduler(@Nonnull Search<R> search, @Nonnull Callback<R> callback,
+                             @Nonnull Executor deliveryExecutor) {
+        if (search == null || callback == null || deliveryExecutor == null) {
+            throw new NullPointerException();
+        }
+
+        mSearch = search;
+        mCallback = callback;
+        mDeliveryExecutor = deliveryExecutor;
+    }
+
+    /**
+     * 在 t9 keys 和电话号码中逐个匹配的搜索, 按条目ID升序返回匹配结果.
+     *
+     * @param t9Keys       t9 keys, 条目ID即为在数组中的位置.
+     * @param phoneNumbers 电话号码, 与 t9Keys 一一对应. 为<code>null</code>时只匹配 t9 keys.
+     * @return 搜索
+     * @see T9StreamingSearcher#search(String[], String[], String, T9CancellationToken)
+     */
+    @Nonnull
+    public static Search<List<T9Hit>> scan(@Nonnull final String[] t9Keys,
+                                           @Nullable final String[] phoneNumbers) {
+        if (phoneNumbers != null && phoneNumbers.length != t9Keys.length) {
+            throw new IllegalArgumentException("phoneNumbers.length != t9Keys.length");
+        }
+
+        return new Search<List<T9Hit>>() {
+            @Override
+            public List<T9Hit> search(@Nullable String constraint,
+                                      @Nonnull T9CancellationToken token) {
+                List<T9Hit> hits = new ArrayList<>();
+                Iterator<T9Hit> iterator =
+                        T9StreamingSearcher.search(t9Keys, phoneNumbers, constraint, token);
+                while (iterator.hasNext()) {
+                    hits.add(iterator.next());
+                }
+                return hits;
+            }
+        };
+    }
+
+    /**
+     * 提交新的 constraint, 取消正在执行的搜索以及尚未开始的搜索.
+     *
+     * @param constraint the constraint.
+     * @throws IllegalStateException 如果已经 {@link #shutdown()}.
+     */
+    public void submit(@Nullable String constraint) {
+        synchronized (mLock) {
+            if (mShutdown) {
+                throw new IllegalStateException("Already shut down");
+            }
+
+            mGeneration++;
+            mPendingConstraint = constraint;
+            mHasPending = true;
+            if (mRunningToken != null) {
+                mRunningToken.cancel();
+            }
+
+            if (mWorker == null) {
+                startWorkerLocked();
+            } else {
+                mLock.notify();
+            }
+        }
+    }
+
+    private void startWorkerLocked() {
+        mWorker = new Thread(new Worker(), "T9SearchScheduler");
+        mWorker.setDaemon(true);
+        mWorker.start();
+    }
+
+    /**
+     * 取消所有搜索并停止工作线程, 之后不会再发送任何结果. 重复调用没有影响.
+     */
+    public void shutdown() {
+        synchronized (mLock) {
+            mShutdown = true;
+            mHasPending = false;
+            mPendingConstraint = null;
+            if (mRunningToken != null) {
+                mRunningToken.cancel();
+            }
+            mLock.notify();
+        }
+    }
+
+    private final class Worker implements Runnable {
+
+        @Override
+        public void run() {
+            try {
+                loop();
+            } finally {
+                // 工作线程因 Error 等原因而结束时, 已有新的提交则立即创建新的工作线程
+                synchronized (mLock) {
+                    mRunningToken = null;
+                    if (mWorker == Thread.currentThread()) {
+                        mWorker = null;
+                        if (mHasPending && !mShutdown) {
+                            startWorkerLocked();
+                        }
+                    }
+                }
+            }
+        }
+
+        private void loop() {
+            while (true) {
+                final String constraint;
+                final long generation;
+                final T9CancellationToken token;
+                synchronized (mLock) {
+                    while (!mHasPending && !mShutdown) {
+                        try {
+                            mLock.wait();
+                        } catch (InterruptedException e) {
+                            // 只在 shutdown 之后退出, 忽略中断继续等待
+                        }
+                    }
+
+                    if (mShutdown) {
+                        return;
+                    }
+
+                    constraint = mPendingConstraint;
+                    generation = mGeneration;
+                    token = mRunningToken = new T9CancellationToken();
+                    mPendingConstraint = null;
+                    mHasPending = false;
+                }
+
+                R result = null;
+                RuntimeException error = null;
+                try {
+                    result = mSearch.search(constraint, token);
+                } catch (RuntimeException e) {
+                    error = e;
+                }
+
+                synchronized (mLock) {
+                    mRunningToken = null;
+                }
+
+                if (!token.isCancelled()) {
+                    deliver(constraint, generation, result, error);
+                }
+            }
+        }
+
+        private void deliver(final String constraint, final long generation, final R result,
+                             final RuntimeException error) {
+            try {
+                mDeliveryExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        // 发送之前又有新的提交时丢弃
+                        if (generation == mGeneration && !mShutdown) {
+                            if (error != null) {
+                                mCallback.onError(constraint, error);
+                            } else {
+                                mCallback.onResult(constraint, result);
+                            }
+                        }
+                    }
+                });
+            } catch (RuntimeException e) {
+                // executor 拒绝执行时丢弃该次结果, 工作线程继续处理之后的提交.
+            }
+        }
+    }
+
+}
@@ -0,0 +1,99 @@
+package cn.tinkling.t9;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * T9 搜索会话
+ * <p>
+ * 保存每一级 constraint 的匹配结果。输入追加数字时只对上一次的结果重新匹配,
+ * 删除数字时直接返回之前缓存的结果, 因此每次输入的开销与命中数量成正比, 而与条目总数无关。
+ * <p>
+ * 非线程安全。
+ */
+public final class T9SearchSession {
+
+    private final T9Index mIndex;
+    private final ArrayList<String> mConstraints = new ArrayList<>();
+    private final ArrayList<List<T9Hit>> mResults = new ArrayList<>();
+
+    /**
+     * @param index 搜索的索引, 用于第一级的搜索.
+     */
+    public T9SearchSession(@Nonnull T9Index index) {
+        mIndex = index;
+    }
+
+    /**
+     * @return 当前的 constraint
+     */
+    @Nonnull
+    public String getConstraint() {
+        final int size = mConstraints.size();
+        return size > 0 ? mConstraints.get(size - 1) : "";
+    }
+
+    /**
+     * 清除缓存的结果
+     */
+    public void reset() {
+        mConstraints.clear();
+        mResults.clear();
+    }
+
+    /**
+     * 搜索
+     *
+     * @param t9Constraint the constraint.
+     * @return 按条目ID升序排列的不可修改的匹配结果
+     * @see T9Index#search(String)
+     */
+    @Nonnull
+    public List<T9Hit> search(@Nullable String t9Constraint) {
+        if (T9Utils.isEmpty(t9Constraint)) {
+            reset();
+            return Collections.emptyList();
+        }
+
+        // 丢弃不是新 constraint 前缀的缓存
+        int level = mConstraints.size() - 1;
+        while (level >= 0 && !t9Constraint.startsWith(mConstraints.get(level))) {
+            mConstraints.remove(level);
+            mResults.remove(level);
+            level--;
+        }
+
+        if (level >= 0 && mConstraints.get(level).length() == t9Constraint.length()) {
+            return mResults.get(level);
+        }
+
+        List<T9Hit> hits;
+        if (level < 0) {
+            hits = mIndex.search(t9Constraint);
+        } else {
+            hits = refine(mResults.get(level), t9Constraint);
+        }
+
+        hits = Collections.unmodifiableList(hits);
+        mConstraints.add(t9Constraint);
+        mResults.add(hits);
+        return hits;
+    }
+
+    private List<T9Hit> refine(List<T9Hit> survivors, String t9Constraint) {
+        List<T9Hit> hits = new ArrayList<>(survivors.size());
+        for (T9Hit survivor : survivors) {
+            final int id = survivor.id();
+            T9MatchInfo matchInfo = T9Matcher.matches(mIndex.getKey(id), t9Constraint);
+            if (matchInfo.found()) {
+                hits.add(new T9Hit(id, matchInfo));
+            }
+        }
+        return hits;
+    }
+
+}
@@ -0,0 +1,113 @@
+package cn.tinkling.t9;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * 流式搜索
+ * <p>
+ * 返回的 {@link Iterator} 在被调用时才继续匹配后续的条目, 找到一个结果就立即返回,
+ * 因此可以在全部条目匹配完成之前显示最先找到的结果. 每匹配 {@value #CHUNK_SIZE} 个条目检查一次取消标记,
+ * 被取消后 {@link Iterator#hasNext()} 返回<code>false</code>, 不再匹配剩余的条目.
+ */
+public final class T9StreamingSearcher {
+
+    static final int CHUNK_SIZE = 256;
+
+    private T9StreamingSearcher() {
+    }
+
+    /**
+     * 搜索
+     * <p>
+     * 返回的 iterator 不是线程安全的, 并且持有 t9Keys 和 phoneNumbers 的引用, 遍历期间不能修改它们.
+     *
+     * @param t9Keys       t9 keys, 条目ID即为在数组中的位置.
+     * @param phoneNumbers 电话号码, 与 t9Keys 一一对应. 为<code>null</code>时只匹配 t9 keys.
+     * @param constraint   the constraint.
+     * @param token        取消标记, 为<code>null</code>时不能取消.
+     * @return 按条目ID升序产生匹配结果的 iterator, 名称或电话号码匹配的条目都会被包含.
+     * @throws IllegalArgumentException 如果 phoneNumbers 与 t9Keys 的长度不同.
+     * @see T9Matcher#matches(String, String)
+     * @see T9Matcher#matchesNumber(String, String)
+     */
+    @Nonnull
+    public static Iterator<T9Hit> search(@Nonnull String[] t9Keys, @Nullable String[] phoneNumbers,
+                                         @Nullable String constraint,
+                                         @Nullable T9CancellationToken token) {
+        if (phoneNumbers != null && phoneNumbers.length != t9Keys.length) {
+            throw new IllegalArgumentException("phoneNumbers.length != t9Keys.length");
+        }
+
+        return new HitIterator(t9Keys, phoneNumbers, constraint, token);
+    }
+
+    private static final class HitIterator implements Iterator<T9Hit> {
+
+        private final String[] mT9Keys;
+        private final String[] mPhoneNumbers;
+        private final String mConstraint;
+        private final T9CancellationToken mToken;
+
+        // iterator 可能在遍历结束之前被丢弃, 因此不使用共享的缓冲池
+        private final T9MatchSpans mNameSpans = new T9MatchSpans();
+        private final T9MatchSpans mNumberSpans = new T9MatchSpans();
+
+        private int mNextId;
+        private int mChunkEnd;
+        private T9Hit mNext;
+
+        HitIterator(String[] t9Keys, String[] phoneNumbers, String constraint,
+                    T9CancellationToken token) {
+            mT9Keys = t9Keys;
+            mPhoneNumbers = phoneNumbers;
+            mConstraint = constraint;
+            mToken = token;
+            // constraint 为空时没有结果
+            mNextId = T9Utils.isEmpty(constraint) ? t9Keys.length : 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (mNext == null && mNextId < mT9Keys.length) {
+                if (mNextId == mChunkEnd) {
+                    if (mToken != null && mToken.isCancelled()) {
+                        mNextId = mT9Keys.length;
+                        break;
+                    }
+                    mChunkEnd = Math.min(mNextId + CHUNK_SIZE, mT9Keys.length);
+                }
+
+                final int id = mNextId++;
+                boolean nameFound = T9Matcher.matches(mT9Keys[id], mConstraint, mNameSpans);
+                boolean numberFound = mPhoneNumbers != null &&
+                        T9Matcher.matchesNumber(mPhoneNumbers[id], mConstraint, mNumberSpans);
+                if (nameFound || numberFound) {
+                    mNext = new T9Hit(id, mNameSpans.toMatchInfo(),
+                            numberFound ? mNumberSpans.toMatchInfo() : new T9MatchInfo());
+                }
+            }
+            return mNext != null;
+        }
+
+        @Override
+        public T9Hit next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            T9Hit hit = mNext;
+            mNext = null;
+            return hit;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+}
@@ -0,0 +1,579 @@
+package cn.tinkling.t9;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * T9工具类
+ */
+public final class T9Utils {
+
+    public static final char T9_KEYS_DIVIDER = ';';
+
+    private static final char[] VALID_T9_KEYS = {
+            '0', '1', '2', '3', '4', '5', '6',
+            '7', '8', '9', '+', ',', '*', '#'
+    };
+
+    private static final char[] PINYIN_T9_MAP = {
+            '2', '2', '2',
+            '3', '3', '3',
+            '4', '4', '4',
+            '5', '5', '5',
+            '6', '6', '6',
+            '7', '7', '7', '7',
+            '8', '8', '8',
+            '9', '9', '9', '9'
+    };
+
+    private static final Pool<StringBuilder> STRING_BUILDER_POOL = new Pool<>(4);
+    private static final Pool<BitSet> BIT_SET_POOL = new Pool<>(4);
+    private static final Pool<T9MatchSpans> MATCH_SPANS_POOL = new Pool<>(4);
+    private static final Pool<KeyBuffers> KEY_BUFFERS_POOL = new Pool<>(4);
+
+    private static final int PARALLEL_CHUNK_SIZE = 256;
+
+    /**
+     * 性能指标监听器, 默认为<code>null</code>.
+     */
+    static volatile T9MetricsListener sMetricsListener;
+
+    /**
+     * 生成 T9 key 所需的缓冲
+     */
+    private static final class KeyBuffers {
+        final StringBuilder mKey = new StringBuilder();
+        final StringBuilder mTemp = new StringBuilder();
+        final StringBuilder mAlternative = new StringBuilder();
+        final StringBuilder mSyllable = new StringBuilder();
+    }
+
+    private T9Utils() {
+    }
+
+    /**
+     * @return <code>true</code> - 如果字符串为<code>null</code>或长度为0.
+     */
+    static boolean isEmpty(@Nullable CharSequence str) {
+        return str == null || str.length() == 0;
+    }
+
+    /**
+     * 内部缓冲池的命中次数, 为所有线程的总和.
+     * <p>
+     * 缓冲池按线程隔离, 获取和回收缓冲都不需要加锁. 与 {@link #getScratchMissCount()}
+     * 一起可以用来确认并发匹配或生成 t9 key 时缓冲是否被有效地复用.
+     *
+     * @return 命中次数
+     */
+    public static long getScratchHitCount() {
+        return STRING_BUILDER_POOL.getHitCount() + BIT_SET_POOL.getHitCount()
+                + MATCH_SPANS_POOL.getHitCount() + KEY_BUFFERS_POOL.getHitCount();
+    }
+
+    /**
+     * 内部缓冲池的未命中次数(需要新建缓冲的次数), 为所有线程的总和.
+     *
+     * @return 未命中次数
+     * @see #getScratchHitCount()
+     */
+    public static long getScratchMissCount() {
+        return STRING_BUILDER_POOL.getMissCount() + BIT_SET_POOL.getMissCount()
+                + MATCH_SPANS_POOL.getMissCount() + KEY_BUFFERS_POOL.getMissCount();
+    }
+
+    /**
+     * 设置性能指标监听器
+     * <p>
+     * 监听器会被多个线程同时调用, 必须是线程安全的. 没有监听器时不会测量耗时.
+     *
+     * @param listener 监听器, <code>null</code> 表示不再监听.
+     * @see T9MetricsRecorder
+     */
+    public static void setMetricsListener(@Nullable T9MetricsListener listener) {
+        sMetricsListener = listener;
+    }
+
+    /**
+     * @return 当前的性能指标监听器
+     */
+    @Nullable
+    public static T9MetricsListener getMetricsListener() {
+        return sMetricsListener;
+    }
+
+    private static <T> T acquire(Pool<T> pool, int poolId) {
+        T instance = pool.acquire();
+        final T9MetricsListener listener = sMetricsListener;
+        if (listener != null) {
+            listener.onPoolAcquire(poolId, instance != null);
+        }
+        return instance;
+    }
+
+    @Nonnull
+    static StringBuilder getReusableStringBuilder() {
+        StringBuilder sb = acquire(STRING_BUILDER_POOL, T9MetricsListener.POOL_STRING_BUILDER);
+        return (sb != null) ? sb : new StringBuilder();
+    }
+
+    static void recycleStringBuilder(@Nonnull StringBuilder sb) {
+        sb.setLength(0);
+        STRING_BUILDER_POOL.release(sb);
+    }
+
+    @Nonnull
+    static BitSet getReusableBitSet() {
+        BitSet bs = acquire(BIT_SET_POOL, T9MetricsListener.POOL_BIT_SET);
+        return (bs != null) ? bs : new BitSet();
+    }
+
+    static void recycleBitSet(@Nonnull BitSet bs) {
+        bs.clear();
+        BIT_SET_POOL.release(bs);
+    }
+
+    @Nonnull
+    static T9MatchSpans getReusableMatchSpans() {
+        T9MatchSpans spans = acquire(MATCH_SPANS_POOL, T9MetricsListener.POOL_MATCH_SPANS);
+        return (spans != null) ? spans : new T9MatchSpans();
+    }
+
+    static void recycleMatchSpans(@Nonnull T9MatchSpans spans) {
+        spans.reset();
+        MATCH_SPANS_POOL.release(spans);
+    }
+
+    /**
+     * 检测指定字符是否是有效的T9字符
+     *
+     * @param c 输入字符
+     * @return <code>true</code> - 如果指定字符为有效的T9字符，<code>false</code> - 其他
+     */
+    public static boolean isValidT9Key(char c) {
+        return ((c >= '0') && (c <= '9')) || (c == ',') || (c == '+') || (c == '*') || (c == '#');
+    }
+
+    /**
+     * 检测输入是否是有效的T9键
+     *
+     * @param key 键
+     * @return <code>true</code> - 如果输入为有效的T9键，<code>false</code> - 其他
+     */
+    public static boolean isValidT9Key(@Nonnull CharSequence key) {
+        final int LEN = key.length();
+        for (int i = 0; i < LEN; i++) {
+            if (!isValidT9Key(key.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static int getWordsCount(String key, int start, int end) {
+        int count = 0;
+
+        int len = key.length();
+        if (end >= len) {
+            end = len - 1;
+        }
+
+        char c;
+        for (int i = start; i < end; i++) {
+            c = key.charAt(i);
+            if (i == start || c == ' ' || isInitial(c)) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    static char convertDigitToInitial(char c) {
+        return (char) ('C' + (c - '#'));
+    }
+
+    static char convertInitialToDigit(char c) {
+        return (char) ('#' + (c - 'C'));
+    }
+
+    static boolean isInitial(char c) {
+        return (c >= 'C') && (c <= 'Y');
+    }
+
+    /**
+     * 转换T9索引为对应的T9字符
+     *
+     * @param index T9索引。0~9 -> 0~9, '+' -> 10, ',' -> 11, '*' -> 12, '#' -> 13.
+     * @return T9字符
+     * @throws ArrayIndexOutOfBoundsException <code>index < 0 || index > 13</code>
+     */
+    public static char convertIndexToT9Key(int index) {
+        return VALID_T9_KEYS[index];
+    }
+
+    /**
+     * 转换T9字符为对应的T9索引
+     *
+     * @param c T9字符 - '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', '+', ',', '*', '#'.
+     * @return T9索引
+     * @throws IllegalArgumentException
+     */
+    public static int convertT9CharToIndex(char c) {
+        if ((c >= '0') && (c <= '9')) {
+            return c - '0';
+        }
+
+        switch (c) {
+            case '+':
+                return 10;
+            case ',':
+                return 11;
+            case '*':
+                return 12;
+            case '#':
+                return 13;
+            default:
+                throw new IllegalArgumentException("INVALID T9 SEARCH CHARACTER");
+        }
+    }
+
+    /**
+     * 将指定字符格式化为T9字符
+     *
+     * @param c 输入字符
+     * @return T9字符
+     */
+    public static char formatCharToT9(char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return PINYIN_T9_MAP[c - 'A'];
+        } else if (c >= 'a' && c <= 'z') {
+            return PINYIN_T9_MAP[c - 'a'];
+        } else if (isValidT9Key(c)) {
+            return c;
+        }
+
+        return '\0';
+    }
+
+    static String convertToT9Key(String input) {
+        StringBuilder sb = getReusableStringBuilder();
+        char cLast = ' ';
+        final int LEN = input.length();
+        for (int i = 0; i < LEN; i++) {
+            char cSrc = input.charAt(i);
+            char t9c = formatCharToT9(cSrc);
+
+            if (t9c == 0)
+                t9c = ' ';
+            else if (Character.isUpperCase(cSrc) || i == 0
+                    || (Character.isLetter(cSrc) && !Character.isLetter(cLast)))
+                t9c = convertDigitToInitial(t9c);
+            else if (Character.isDigit(cSrc) && !Character.isDigit(cLast))
+                t9c = convertDigitToInitial(t9c);
+            else if (isValidT9Key(cSrc))
+                t9c = convertDigitToInitial(t9c);
+
+            sb.append(t9c);
+            cLast = cSrc;
+        }
+
+        String result = sb.toString();
+        recycleStringBuilder(sb);
+        return result;
+    }
+
+    static String formatPinyin(String pinyin) {
+        StringBuilder pinyinBuilder = getReusableStringBuilder();
+        final int LEN = pinyin.length();
+        char c;
+        for (int i = 0; i < LEN; i++) {
+            c = pinyin.charAt(i);
+            if (i == 0) {
+                c = Character.toUpperCase(c);
+            } else {
+                c = Character.toLowerCase(c);
+            }
+            pinyinBuilder.append(c);
+        }
+
+        String format = pinyinBuilder.toString();
+        recycleStringBuilder(pinyinBuilder);
+        return format;
+    }
+
+    static String formatNonPinyin(String src) {
+        StringBuilder sb = getReusableStringBuilder();
+        final int LEN = src.length();
+        char c;
+        for (int i = 0; i < LEN; i++) {
+            c = src.charAt(i);
+            if (Character.isLetter(c)) {
+                c = Character.toUpperCase(c);
+            }
+            sb.append(c);
+        }
+
+        String format = sb.toString();
+        recycleStringBuilder(sb);
+        return format;
+    }
+
+    /**
+     * Build T9 Key.
+     *
+     * @param pinyinTokens Pinyin tokens.
+     * @return T9 Key.
+     * @see PinyinToken
+     * @deprecated use {@link #buildT9Key(String, PinyinProvider)}.
+     */
+    @Nonnull
+    @Deprecated
+    public static String buildT9Key(@Nonnull List<PinyinToken> pinyinTokens) {
+        StringBuilder pinyinBuilder = getReusableStringBuilder();
+
+        for (PinyinToken pinyinToken : pinyinTokens) {
+            if (PinyinToken.PINYIN == pinyinToken.type) {
+                pinyinBuilder.append(formatPinyin(pinyinToken.target));
+            } else {
+                pinyinBuilder.append(formatNonPinyin(pinyinToken.target));
+            }
+        }
+
+        String t9Key = convertToT9Key(pinyinBuilder.toString());
+        recycleStringBuilder(pinyinBuilder);
+        return t9Key;
+    }
+
+    @Nonnull
+    private static String convertPinyinToT9Key(String py) {
+        StringBuilder t9KeyBuilder = getReusableStringBuilder();
+        appendPinyinT9Key(t9KeyBuilder, py);
+        String t9Key = t9KeyBuilder.toString();
+        recycleStringBuilder(t9KeyBuilder);
+        return t9Key;
+    }
+
+    private static void appendPinyinT9Key(@Nonnull StringBuilder t9KeyBuilder, String py) {
+        if (py == null || py.length() == 0) {
+            t9KeyBuilder.append(' ');
+            return;
+        }
+
+        final int start = t9KeyBuilder.length();
+        for (int i = 0; i < py.length(); i++) {
+            char c = py.charAt(i);
+            if (('A' <= c && c <= 'Z') || ('a' <= c && c <= 'z')) {
+                char t9C = formatCharToT9(c);
+                if (i == 0) {
+                    t9C = convertDigitToInitial(t9C);
+                }
+
+                t9KeyBuilder.append(t9C);
+            } else {
+                t9KeyBuilder.setLength(start);
+                t9KeyBuilder.append(' ');
+                break;
+            }
+        }
+    }
+
+    private static void insertT9Key(@Nonnull StringBuilder t9KeyBuilder, char t9Char) {
+        for (int i = 0; i < t9KeyBuilder.length(); i++) {
+            if (t9KeyBuilder.charAt(i) == T9_KEYS_DIVIDER) {
+                t9KeyBuilder.insert(i, t9Char);
+                i++;
+            }
+        }
+    }
+
+    private static void insertT9Key(@Nonnull StringBuilder t9KeyBuilder,
+                                    @Nonnull CharSequence t9Str) {
+        final int len = t9Str.length();
+        if (len == 0)
+            return;
+
+        for (int i = 0; i < t9KeyBuilder.length(); i++) {
+            if (t9KeyBuilder.charAt(i) == T9_KEYS_DIVIDER) {
+                t9KeyBuilder.insert(i, t9Str);
+                i += len;
+            }
+        }
+    }
+
+    /**
+     * Build T9 Key.
+     *
+     * @param src      input.
+     * @param provider pinyin provider.
+     * @return T9 Key.
+     * @throws NullPointerException if src or provider is null.
+     */
+    @Nonnull
+    public static String buildT9Key(@Nonnull String src, @Nonnull PinyinProvider provider) {
+        KeyBuffers buffers = acquire(KEY_BUFFERS_POOL, T9MetricsListener.POOL_KEY_BUFFERS);
+        if (buffers == null) {
+            buffers = new KeyBuffers();
+        }
+
+        try {
+            return buildT9Key(src, provider, buffers);
+        } finally {
+            KEY_BUFFERS_POOL.release(buffers);
+        }
+    }
+
+    @Nonnull
+    private static String buildT9Key(@Nonnull String src, @Nonnull PinyinProvider provider,
+                                     @Nonnull KeyBuffers buffers) {
+        final T9MetricsListener listener = sMetricsListener;
+        if (listener == null)
+            return buildT9KeyAlternatives(src, provider, buffers);
+
+        final long startTime = System.nanoTime();
+        final String t9Key = buildT9KeyAlternatives(src, provider, buffers);
+        final long duration = System.nanoTime() - startTime;
+
+        int alternativeCount = 1;
+        for (int i = t9Key.indexOf(T9_KEYS_DIVIDER); i >= 0;
+             i = t9Key.indexOf(T9_KEYS_DIVIDER, i + 1)) {
+            alternativeCount++;
+        }
+        listener.onKeyBuilt(src.length(), alternativeCount, duration);
+        return t9Key;
+    }
+
+    @Nonnull
+    private static String buildT9KeyAlternatives(@Nonnull String src,
+                                                 @Nonnull PinyinProvider provider,
+                                                 @Nonnull KeyBuffers buffers) {
+        final StringBuilder t9KeyBuilder = buffers.mKey;
+        final StringBuilder syllableBuilder = buffers.mSyllable;
+
+        t9KeyBuilder.setLength(0);
+        t9KeyBuilder.append(T9_KEYS_DIVIDER);
+
+        final int len = src.length();
+        for (int i = 0; i < len; ++i) {
+            char c = src.charAt(i);
+
+            if (/*ASCII*/c < 128 ||/*Extended Latin*/(c < 0x250 || (0x1e00 <= c && c < 0x1eff))) {
+                char t9c = convertDigitToInitial(formatCharToT9(c));
+                insertT9Key(t9KeyBuilder, t9c);
+            } else {
+                String[] pinyin = provider.getPinyin(c);
+                if (pinyin == null || pinyin.length == 0) {
+                    insertT9Key(t9KeyBuilder, ' ');
+                } else if (pinyin.length == 1) {
+                    syllableBuilder.setLength(0);
+                    appendPinyinT9Key(syllableBuilder, pinyin[0]);
+                    insertT9Key(t9KeyBuilder, syllableBuilder);
+                } else {
+                    final StringBuilder temp = buffers.mTemp;
+                    final StringBuilder tempBuilder = buffers.mAlternative;
+                    temp.setLength(0);
+                    temp.append(t9KeyBuilder);
+
+                    t9KeyBuilder.setLength(0);
+                    for (String py : pinyin) {
+                        tempBuilder.setLength(0);
+                        tempBuilder.append(temp);
+                        syllableBuilder.setLength(0);
+                        appendPinyinT9Key(syllableBuilder, py);
+                        insertT9Key(tempBuilder, syllableBuilder);
+                        t9KeyBuilder.append(tempBuilder);
+                    }
+                }
+            }
+        }
+
+        t9KeyBuilder.delete(t9KeyBuilder.length() - 1, t9KeyBuilder.length());
+        return t9KeyBuilder.toString();
+    }
+
+    /**
+     * 并行生成 T9 Key.
+     * <p>
+     * 输入被分成若干块, 由 executor 中的线程和调用线程一起生成, 每个线程使用各自的缓冲.
+     * 条目较少时直接在调用线程中生成. 调用线程不会等待没有开始执行的任务, executor 没有空闲线程时
+     * 由调用线程独自完成, 因此可以在 executor 自身的线程中调用(例如 AsyncTask 的后台线程).
+     *
+     * @param src      input.
+     * @param provider pinyin provider, 会被多个线程同时调用, 必须是线程安全的.
+     * @param executor 用于执行生成任务的 executor.
+     * @return 与输入顺序一致的 T9 keys.
+     * @throws NullPointerException if src, any element of src or provider is null.
+     * @throws InterruptedException 如果等待生成任务完成时被中断.
+     * @see #buildT9Key(String, PinyinProvider)
+     */
+    @Nonnull
+    public static List<String> buildT9Keys(@Nonnull List<String> src,
+                                           @Nonnull final PinyinProvider provider,
+                                           @Nonnull Executor executor)
+            throws InterruptedException {
+        final String[] input = src.toArray(new String[src.size()]);
+        final String[] keys = new String[input.length];
+
+        ParallelChunks.execute(new ParallelChunks.Task<KeyBuffers>() {
+            @Nonnull
+            @Override
+            KeyBuffers createScratch() {
+                return new KeyBuffers();
+            }
+
+            @Override
+            void process(@Nonnull KeyBuffers buffers, int chunk, int start, int end) {
+                for (int i = start; i < end; i++) {
+                    keys[i] = buildT9Key(input[i], provider, buffers);
+                }
+            }
+        }, input.length, PARALLEL_CHUNK_SIZE, executor);
+
+        return Arrays.asList(keys);
+    }
+
+    /**
+     * Build T9 lattice key.
+     * <p>
+     * 多音字的每个读音只保存一次, key 的大小与 src 的长度成线性关系.
+     *
+     * @param src      input.
+     * @param provider pinyin provider.
+     * @return T9 lattice key.
+     * @throws NullPointerException if src or provider is null.
+     * @see T9LatticeMatcher
+     */
+    @Nonnull
+    public static T9LatticeKey buildT9LatticeKey(@Nonnull String src,
+                                                 @Nonnull PinyinProvider provider) {
+        T9LatticeKey.Builder builder = new T9LatticeKey.Builder();
+
+        final int len = src.length();
+        for (int i = 0; i < len; ++i) {
+            char c = src.charAt(i);
+            builder.startSlot();
+
+            if (/*ASCII*/c < 128 ||/*Extended Latin*/(c < 0x250 || (0x1e00 <= c && c < 0x1eff))) {
+                char t9c = convertDigitToInitial(formatCharToT9(c));
+                builder.addReading(String.valueOf(t9c));
+            } else {
+                String[] pinyin = provider.getPinyin(c);
+                if (pinyin == null || pinyin.length == 0) {
+                    builder.addReading(" ");
+                } else {
+                    for (String py : pinyin) {
+                        builder.addReading(convertPinyinToT9Key(py));
+                    }
+                }
+            }
+        }
+
+        return builder.build();
+    }
+
+}
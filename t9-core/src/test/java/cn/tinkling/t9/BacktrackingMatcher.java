@@ -1,58 +1,35 @@
 package cn.tinkling.t9;
 
-import android.support.annotation.NonNull;
-import android.support.annotation.Nullable;
-import android.text.TextUtils;
-
 import java.util.BitSet;
 
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
 /**
- * T9 匹配工具类
+ * 最初的回溯匹配, 作为对照.
+ * <p>
+ * 与 {@link T9Matcher} 的区别只在于最后的 regionMatches 没有限制在选项之内, constraint 含有
+ * {@link T9Utils#T9_KEYS_DIVIDER} 时可能越过选项的末尾, 因此只用于有效的 constraint.
  */
-public final class T9Matcher {
+final class BacktrackingMatcher {
 
-    private T9Matcher() {
+    private BacktrackingMatcher() {
     }
 
-    /**
-     * T9 匹配
-     *
-     * @param t9Key        t9 key.
-     * @param t9Constraint the constraint.
-     * @return the match info.
-     * @see T9MatchInfo
-     */
-    @NonNull
-    public static T9MatchInfo matches(@Nullable String t9Key, char t9Constraint) {
-        T9MatchInfo matchInfo = new T9MatchInfo();
+    @Nonnull
+    static T9MatchInfo matches(@Nullable String t9Key, @Nullable String t9Constraint) {
+        if (T9Utils.isEmpty(t9Key) || T9Utils.isEmpty(t9Constraint))
+            return new T9MatchInfo();
 
-        if (!TextUtils.isEmpty(t9Key)) {
-            char initial = T9Utils.convertDigitToInitial(t9Constraint);
+        if (t9Constraint.length() == 1) {
+            T9MatchInfo matchInfo = new T9MatchInfo();
+            char initial = T9Utils.convertDigitToInitial(t9Constraint.charAt(0));
             int index = t9Key.indexOf(initial);
             if (index >= 0) {
                 int begin = t9Key.substring(0, index).lastIndexOf(T9Utils.T9_KEYS_DIVIDER) + 1;
-                int start = T9Utils.getWordsCount(t9Key, begin, index);
-                matchInfo.set(start, 1);
+                matchInfo.set(T9Utils.getWordsCount(t9Key, begin, index), 1);
             }
-        }
-        return matchInfo;
-    }
-
-    /**
-     * T9 匹配
-     *
-     * @param t9Key        t9 key.
-     * @param t9Constraint the constraint.
-     * @return the match info.
-     * @see T9MatchInfo
-     */
-    @NonNull
-    public static T9MatchInfo matches(@Nullable String t9Key, @Nullable String t9Constraint) {
-        if (TextUtils.isEmpty(t9Key) || TextUtils.isEmpty(t9Constraint))
-            return new T9MatchInfo();
-
-        if (t9Constraint.length() == 1) {
-            return matches(t9Key, t9Constraint.charAt(0));
+            return matchInfo;
         }
 
         T9MatchInfo matchInfo = new T9MatchInfo();
@@ -75,7 +52,6 @@ public final class T9Matcher {
     private static int matchesName(String t9Key, int begin, int end, int start, String t9Constraint,
                                    int cStart, BitSet bitSet) {
         int nextInitialCharIndex = start + 1;
-
         do {
             if (nextInitialCharIndex >= end ||
                     T9Utils.isInitial(t9Key.charAt(nextInitialCharIndex))) {
@@ -145,55 +121,35 @@ public final class T9Matcher {
         return 0;
     }
 
-    private static void matchesName(@NonNull T9MatchInfo matchInfo,
-                                    @NonNull String t9Key,
-                                    int start,
-                                    int end,
-                                    @NonNull String t9Constraint) {
+    private static void matchesName(T9MatchInfo matchInfo, String t9Key, int start, int end,
+                                    String t9Constraint) {
         if (end - start < t9Constraint.length())
             return;
 
         final int maxLength = 1 + (end - t9Constraint.length());
         final char first = T9Utils.convertDigitToInitial(t9Constraint.charAt(0));
+        BitSet bitSet = new BitSet();
         int startIndex = start;
-
-        BitSet bitSet = null;
-        while (true) {
-
-            if (startIndex >= maxLength) {
-                break;
-            }
-
+        while (startIndex < maxLength) {
             int index = t9Key.indexOf(first, startIndex);
-            if (index < 0 || index >= maxLength) {
+            if (index < 0 || index >= maxLength)
                 break;
-            }
 
-            if (bitSet == null) {
-                bitSet = T9Utils.getReusableBitSet();
-            }
             bitSet.clear();
-
-            int matchCount = matchesName(t9Key, start, end, index, t9Constraint, 0, bitSet);
-            if (matchCount > 0) {
+            if (matchesName(t9Key, start, end, index, t9Constraint, 0, bitSet) > 0) {
                 setMatchResult(t9Key, matchInfo, bitSet, start);
                 break;
             }
-
             startIndex = index + 1;
         }
-
-        if (bitSet != null) {
-            T9Utils.recycleBitSet(bitSet);
-        }
     }
 
-    private static void setMatchResult(String t9Key, T9MatchInfo matchInfo, BitSet bitSet, int begin) {
+    private static void setMatchResult(String t9Key, T9MatchInfo matchInfo, BitSet bitSet,
+                                       int begin) {
         int wordCount = 0;
         int start = -1;
-
-        final int LEN = t9Key.length();
-        for (int i = begin; i < LEN; i++) {
+        final int len = t9Key.length();
+        for (int i = begin; i < len; i++) {
             char c = t9Key.charAt(i);
             if (i == begin || c == ' ' || T9Utils.isInitial(c)) {
                 if (bitSet.get(i - begin) && c != ' ') {
@@ -201,52 +157,18 @@ public final class T9Matcher {
                         start = wordCount;
                     }
                 } else if (start > -1) {
-                    matchInfo = checkMatchInfo(matchInfo);
+                    matchInfo = T9Matcher.checkMatchInfo(matchInfo);
                     matchInfo.set(start, wordCount - start);
                     start = -1;
                 }
-
                 wordCount++;
             }
         }
 
         if (start > -1) {
-            matchInfo = checkMatchInfo(matchInfo);
+            matchInfo = T9Matcher.checkMatchInfo(matchInfo);
             matchInfo.set(start, wordCount - start);
         }
     }
 
-    @NonNull
-    private static T9MatchInfo checkMatchInfo(@NonNull T9MatchInfo matchInfo) {
-        if (matchInfo.found()) {
-            T9MatchInfo info = new T9MatchInfo();
-            matchInfo.setNext(info);
-            matchInfo = info;
-        }
-        return matchInfo;
-    }
-
-    /**
-     * 电话号码匹配
-     *
-     * @param phoneNumber 电话号码
-     * @param constraint  the constraint
-     * @return the match info.
-     * @see T9MatchInfo
-     */
-    @NonNull
-    public static T9MatchInfo matchesNumber(@Nullable String phoneNumber,
-                                            @Nullable String constraint) {
-        T9MatchInfo matchInfo = new T9MatchInfo();
-        if (TextUtils.isEmpty(phoneNumber) || TextUtils.isEmpty(constraint))
-            return matchInfo;
-
-        int index = phoneNumber.indexOf(constraint);
-        if (index >= 0) {
-            matchInfo.set(index, constraint.length());
-        }
-
-        return matchInfo;
-    }
-
 }
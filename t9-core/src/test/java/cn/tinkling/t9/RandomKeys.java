@@ -0,0 +1,135 @@
+package cn.tinkling.t9;
+
+import java.util.Random;
+
+/**
+ * 用固定的种子生成随机的 t9 key 和 constraint, 用于对照测试.
+ */
+final class RandomKeys {
+
+    private static final String[] SYLLABLES = {
+            "zhang", "san", "li", "si", "wang", "wu", "zhao", "qian", "sun", "zhou", "chen",
+            "yang", "huang", "a", "e", "ou", "xiong", "lv", "nv", "er", "shuang", "ming"
+    };
+    private static final String INITIALS = "CJKLPQRSTUVWXY";
+    private static final String DIGITS = "0123456789+,*#";
+
+    private final Random mRandom;
+
+    /**
+     * 每个汉字固定的1到3个读音, 部分汉字含有无法转换的读音.
+     */
+    final PinyinProvider mProvider = new PinyinProvider() {
+        @Override
+        public String[] getPinyin(char input) {
+            if (input < 0x4e00 || input == 0x4e00)
+                return null;
+
+            Random random = new Random(input * 31L);
+            if (input % 17 == 0)
+                return new String[]{"x1"};
+
+            String[] pinyin = new String[input % 5 == 0 ? 3 : input % 3 == 0 ? 2 : 1];
+            for (int i = 0; i < pinyin.length; i++) {
+                pinyin[i] = SYLLABLES[random.nextInt(SYLLABLES.length)];
+            }
+            return pinyin;
+        }
+    };
+
+    RandomKeys(long seed) {
+        mRandom = new Random(seed);
+    }
+
+    /**
+     * @return 由随机的名称生成的 t9 key, 或者直接随机生成的 key (可能含有格式错误的部分).
+     */
+    String nextKey() {
+        return mRandom.nextBoolean() ? T9Utils.buildT9Key(nextName(), mProvider) : nextRawKey();
+    }
+
+    private String nextName() {
+        StringBuilder sb = new StringBuilder();
+        final int length = 1 + mRandom.nextInt(5);
+        for (int i = 0; i < length; i++) {
+            final int kind = mRandom.nextInt(20);
+            if (kind == 0) {
+                sb.append((char) ('A' + mRandom.nextInt(26)));
+            } else if (kind == 1) {
+                sb.append(' ');
+            } else if (kind == 2) {
+                sb.append((char) ('a' + mRandom.nextInt(26)));
+            } else {
+                sb.append((char) (0x4e00 + mRandom.nextInt(60)));
+            }
+        }
+        return sb.toString();
+    }
+
+    private String nextRawKey() {
+        StringBuilder sb = new StringBuilder();
+        final int words = 1 + mRandom.nextInt(mRandom.nextInt(10) == 0 ? 40 : 8);
+        for (int w = 0; w < words; w++) {
+            final int kind = mRandom.nextInt(40);
+            if (kind < 4) {
+                sb.append(' ');
+            } else if (kind == 4) {
+                sb.append(T9Utils.T9_KEYS_DIVIDER);
+            } else if (kind == 5) {
+                // 格式错误: 无效的声母, 或者没有声母的数字
+                sb.append(mRandom.nextBoolean() ? "D " : " 2");
+            } else {
+                sb.append(INITIALS.charAt(mRandom.nextInt(INITIALS.length())));
+                final int digits = mRandom.nextInt(4);
+                for (int i = 0; i < digits; i++) {
+                    sb.append(mRandom.nextInt(4) == 0
+                            ? DIGITS.charAt(mRandom.nextInt(DIGITS.length()))
+                            : (char) ('2' + mRandom.nextInt(8)));
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return 只含有有效T9字符的 constraint, 一半从 key 中截取以便得到较多的匹配.
+     */
+    String nextConstraint(String t9Key) {
+        StringBuilder sb = new StringBuilder();
+        if (mRandom.nextBoolean() && t9Key.length() > 0) {
+            final int length = 1 + mRandom.nextInt(8);
+            for (int i = mRandom.nextInt(t9Key.length()); i < t9Key.length() && sb.length() < length; i++) {
+                final char c = t9Key.charAt(i);
+                if (T9Utils.isInitial(c)) {
+                    final char digit = T9Utils.convertInitialToDigit(c);
+                    if (T9Utils.isValidT9Key(digit)) {
+                        sb.append(digit);
+                    }
+                } else if (T9Utils.isValidT9Key(c) && mRandom.nextInt(3) > 0) {
+                    sb.append(c);
+                }
+            }
+        }
+
+        if (sb.length() == 0) {
+            final int length = 1 + mRandom.nextInt(5);
+            for (int i = 0; i < length; i++) {
+                sb.append(T9Utils.convertIndexToT9Key(mRandom.nextInt(14)));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return 匹配信息的文本形式, 用于比较.
+     */
+    static String toString(T9MatchInfo matchInfo) {
+        StringBuilder sb = new StringBuilder();
+        for (T9MatchInfo info = matchInfo; info != null; info = info.next()) {
+            sb.append(info.found()).append(':').append(info.start()).append('/')
+                    .append(info.length()).append(' ');
+        }
+        return sb.toString();
+    }
+
+}
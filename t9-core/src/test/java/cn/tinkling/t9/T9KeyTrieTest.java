@@ -0,0 +1,30 @@
+package cn.tinkling.t9;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class T9KeyTrieTest {
+
+    @Test
+    public void matchesSameAsBacktrackingMatcher() {
+        RandomKeys keys = new RandomKeys(19);
+        T9MatchSpans spans = new T9MatchSpans();
+        for (int i = 0; i < 20000; i++) {
+            final String key = keys.nextKey();
+            final T9KeyTrie trie = T9KeyTrie.compile(key);
+            for (int j = 0; j < 10; j++) {
+                final String constraint = keys.nextConstraint(key);
+                final String expected =
+                        RandomKeys.toString(BacktrackingMatcher.matches(key, constraint));
+
+                assertEquals(key + " / " + constraint, expected,
+                        RandomKeys.toString(T9Matcher.matches(trie, constraint)));
+                T9Matcher.matches(trie, constraint, spans);
+                assertEquals(key + " / " + constraint, expected,
+                        RandomKeys.toString(spans.toMatchInfo()));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,97 @@
+package cn.tinkling.t9;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class T9MatcherTest {
+
+    @Test
+    public void matchesSameAsBacktrackingMatcher() {
+        RandomKeys keys = new RandomKeys(18);
+        T9MatchSpans spans = new T9MatchSpans();
+        for (int i = 0; i < 200000; i++) {
+            final String key = keys.nextKey();
+            final String constraint = keys.nextConstraint(key);
+            final String expected = RandomKeys.toString(BacktrackingMatcher.matches(key, constraint));
+
+            assertEquals(key + " / " + constraint, expected,
+                    RandomKeys.toString(T9Matcher.matches(key, constraint)));
+            T9Matcher.matches(key, constraint, spans);
+            assertEquals(key + " / " + constraint, expected,
+                    RandomKeys.toString(spans.toMatchInfo()));
+        }
+    }
+
+    /**
+     * 很多相似的音节时回溯匹配的耗时呈指数增长, 位并行匹配不受影响.
+     */
+    @Test(timeout = 1000)
+    public void manySimilarSyllablesDoNotBacktrackExponentially() {
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < 28; i++) {
+            key.append("W7");
+        }
+        final String t9Key = key.toString();
+        final String constraint = "77777777777777777779";
+
+        // 回溯匹配每次约需数毫秒
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(T9Matcher.matches(t9Key, constraint).found());
+        }
+    }
+
+    /**
+     * constraint 含有分隔符时不能越过选项的末尾匹配到下一个条目.
+     */
+    @Test
+    public void matchAllDoesNotMatchAcrossEntries() {
+        T9KeyColumn column = T9KeyColumn.of(new String[]{"W4R", "W4R2"});
+        HitCollector hits = new HitCollector();
+        assertEquals(0, T9Matcher.matchAll(column, "72;", hits));
+        assertEquals(0, hits.mIds.size());
+        assertFalse(T9Matcher.matches("W4R", "72;").found());
+        assertFalse(T9Matcher.matches("W4R2", "72;").found());
+    }
+
+    @Test
+    public void matchAllSameAsMatches() {
+        RandomKeys random = new RandomKeys(24);
+        for (int round = 0; round < 200; round++) {
+            String[] keys = new String[100];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = random.nextKey();
+            }
+            final String constraint = random.nextConstraint(keys[round % keys.length]);
+
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < keys.length; i++) {
+                T9MatchInfo matchInfo = T9Matcher.matches(keys[i], constraint);
+                if (matchInfo.found()) {
+                    expected.add(i + " " + RandomKeys.toString(matchInfo));
+                }
+            }
+
+            HitCollector hits = new HitCollector();
+            assertEquals(expected.size(),
+                    T9Matcher.matchAll(T9KeyColumn.of(keys), constraint, hits));
+            assertEquals(constraint, expected, hits.mIds);
+        }
+    }
+
+    private static final class HitCollector implements T9HitSink {
+        final List<String> mIds = new ArrayList<>();
+
+        @Override
+        public void onHit(int id, @Nonnull T9MatchSpans spans) {
+            mIds.add(id + " " + RandomKeys.toString(spans.toMatchInfo()));
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+package cn.tinkling.t9;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class T9PackedMatcherTest {
+
+    @Test
+    public void matchesSameAsBacktrackingMatcher() {
+        RandomKeys random = new RandomKeys(3);
+        T9MatchSpans spans = new T9MatchSpans();
+        for (int round = 0; round < 2000; round++) {
+            String[] keys = new String[50];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = nextPackableKey(random);
+            }
+            final T9PackedKeys packedKeys = T9PackedKeys.pack(keys);
+
+            for (int i = 0; i < keys.length; i++) {
+                final String constraint = random.nextConstraint(keys[i]);
+                final String expected =
+                        RandomKeys.toString(BacktrackingMatcher.matches(keys[i], constraint));
+                final String message = keys[i] + " / " + constraint;
+
+                assertEquals(message, keys[i], packedKeys.getT9Key(i));
+                assertEquals(message, expected, RandomKeys.toString(
+                        T9PackedMatcher.matches(T9PackedKey.pack(keys[i]), constraint)));
+                assertEquals(message, expected,
+                        RandomKeys.toString(T9PackedMatcher.matches(packedKeys, i, constraint)));
+                T9PackedMatcher.matches(packedKeys, i, constraint, spans);
+                assertEquals(message, expected, RandomKeys.toString(spans.toMatchInfo()));
+            }
+        }
+    }
+
+    /**
+     * 含有无效字符的 key 不能被打包
+     */
+    private static String nextPackableKey(RandomKeys random) {
+        while (true) {
+            final String key = random.nextKey();
+            try {
+                T9PackedKey.pack(key);
+                return key;
+            } catch (IllegalArgumentException e) {
+                // 重新生成
+            }
+        }
+    }
+
+}